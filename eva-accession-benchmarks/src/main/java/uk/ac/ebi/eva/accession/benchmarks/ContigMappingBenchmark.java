@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
+import uk.ac.ebi.eva.accession.core.contig.ContigNaming;
+import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the contig synonym lookups done for every variant when replacing or translating contig names.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContigMappingBenchmark {
+
+    private static final int QUERIES = 10000;
+
+    private ContigMapping contigMapping;
+
+    private List<String> contigs;
+
+    @Setup
+    public void setUp() {
+        contigMapping = new ContigMapping(SyntheticData.contigSynonyms());
+        contigs = SyntheticData.contigQueries(QUERIES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void getContigSynonyms(Blackhole blackhole) {
+        for (String contig : contigs) {
+            blackhole.consume(contigMapping.getContigSynonyms(contig));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void getSequenceName(Blackhole blackhole) {
+        for (String contig : contigs) {
+            ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contig);
+            blackhole.consume(contigMapping.getContigSynonym(contig, contigSynonyms, ContigNaming.SEQUENCE_NAME));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void isGenbankReplacementPossible(Blackhole blackhole) {
+        for (String contig : contigs) {
+            ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contig);
+            StringBuilder reason = new StringBuilder();
+            blackhole.consume(contigMapping.isGenbankReplacementPossible(contig, contigSynonyms, reason));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.accession.dbsnp.model.DbsnpVariantAlleles;
+import uk.ac.ebi.eva.accession.dbsnp.model.DbsnpVariantType;
+import uk.ac.ebi.eva.accession.dbsnp.model.Orientation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of dbSNP allele strings into forward strand alleles, as done for every row of the dbSNP import.
+ *
+ * The inputs reproduce the mix found in dbSNP: mostly SNVs like "A/G", some DIVs like "-/CT" and a few
+ * microsatellites like "(CA)12/13/14", each one in forward or reverse orientation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DbsnpVariantAllelesBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private static final String[] SNV_ALLELES = {"A/G", "C/T", "A/C", "G/T", "A/T", "C/G", "A/C/G", "A/C/G/T"};
+
+    private static final String[] MICROSATELLITE_ALLELES = {"(CA)12/13/14", "(T)4/5", "(AT)7/8/9/10", "[(GA)5/6]",
+            "A(T)5/A(T)6/A(T)7"};
+
+    private List<String> references;
+
+    private List<String> alleles;
+
+    private List<Orientation> orientations;
+
+    private List<DbsnpVariantType> types;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(SyntheticData.SEED);
+        references = new ArrayList<>(ROWS);
+        alleles = new ArrayList<>(ROWS);
+        orientations = new ArrayList<>(ROWS);
+        types = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            int kind = random.nextInt(100);
+            if (kind < 85) {
+                String snvAlleles = SNV_ALLELES[random.nextInt(SNV_ALLELES.length)];
+                references.add(snvAlleles.substring(0, 1));
+                alleles.add(snvAlleles);
+                types.add(DbsnpVariantType.SNV);
+            } else if (kind < 97) {
+                String insertedSequence = SyntheticData.randomSequence(random, 1 + random.nextInt(6));
+                references.add("-");
+                alleles.add("-/" + insertedSequence);
+                types.add(DbsnpVariantType.DIV);
+            } else {
+                references.add("CACACACACACA");
+                alleles.add(MICROSATELLITE_ALLELES[random.nextInt(MICROSATELLITE_ALLELES.length)]);
+                types.add(DbsnpVariantType.MICROSATELLITE);
+            }
+            orientations.add(random.nextBoolean() ? Orientation.FORWARD : Orientation.REVERSE);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void allelesInForwardStrand(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            DbsnpVariantAlleles dbsnpVariantAlleles = new DbsnpVariantAlleles(references.get(i), alleles.get(i),
+                                                                              orientations.get(i), orientations.get(i),
+                                                                              types.get(i));
+            blackhole.consume(dbsnpVariantAlleles.getReferenceInForwardStrand());
+            blackhole.consume(dbsnpVariantAlleles.getAllelesInForwardStrand());
+        }
+    }
+}
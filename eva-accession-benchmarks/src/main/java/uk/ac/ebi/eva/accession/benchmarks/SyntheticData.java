@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
+import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
+import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
+import uk.ac.ebi.eva.commons.core.models.VariantType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the inputs used by the benchmarks. Every generator uses a {@link Random} with a fixed seed, so the same
+ * data is produced on every run and the results of different runs (and machines) can be compared.
+ */
+public final class SyntheticData {
+
+    public static final long SEED = 20200101L;
+
+    public static final String ASSEMBLY_ACCESSION = "GCA_000000001.1";
+
+    public static final int TAXONOMY_ACCESSION = 9999;
+
+    public static final int CONTIG_COUNT = 2000;
+
+    /** Number of chromosomes (assembled molecules) in the synthetic assembly, the rest of the contigs are scaffolds */
+    public static final int CHROMOSOME_COUNT = 30;
+
+    private static final String[] BASES = {"A", "C", "G", "T"};
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Builds assembly report rows where the first {@link #CHROMOSOME_COUNT} contigs are assembled molecules and the
+     * rest are unlocalized scaffolds without assigned molecule. One in ten scaffolds has a GenBank accession that
+     * differs from the RefSeq one, as happens in real reports.
+     */
+    public static List<ContigSynonyms> contigSynonyms() {
+        List<ContigSynonyms> contigSynonyms = new ArrayList<>(CONTIG_COUNT);
+        for (int i = 1; i <= CONTIG_COUNT; i++) {
+            boolean chromosome = i <= CHROMOSOME_COUNT;
+            String sequenceName = chromosome ? Integer.toString(i) : "scaffold_" + i;
+            contigSynonyms.add(new ContigSynonyms(sequenceName,
+                                                  chromosome ? "assembled-molecule" : "unlocalized-scaffold",
+                                                  chromosome ? Integer.toString(i) : "na",
+                                                  genBank(i),
+                                                  refSeq(i),
+                                                  chromosome ? "chr" + i : "na",
+                                                  i % 10 != 0));
+        }
+        return contigSynonyms;
+    }
+
+    public static String genBank(int contigIndex) {
+        return String.format("CM%06d.1", contigIndex);
+    }
+
+    public static String refSeq(int contigIndex) {
+        return String.format("NC_%06d.1", contigIndex);
+    }
+
+    /**
+     * Contig names as they would arrive from the different inputs: mostly GenBank accessions, with a mix of the other
+     * naming conventions and some names that are not present in the assembly report.
+     */
+    public static List<String> contigQueries(int count) {
+        Random random = new Random(SEED);
+        List<String> contigs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int contigIndex = 1 + random.nextInt(CONTIG_COUNT);
+            int naming = random.nextInt(10);
+            if (naming < 6) {
+                contigs.add(genBank(contigIndex));
+            } else if (naming < 8) {
+                contigs.add(refSeq(contigIndex));
+            } else if (naming < 9) {
+                contigs.add(contigIndex <= CHROMOSOME_COUNT ? "chr" + contigIndex : "scaffold_" + contigIndex);
+            } else {
+                contigs.add("unknown_" + contigIndex);
+            }
+        }
+        return contigs;
+    }
+
+    public static List<ISubmittedVariant> submittedVariants(int count) {
+        Random random = new Random(SEED);
+        List<ISubmittedVariant> variants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] alleles = alleles(random);
+            variants.add(new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION,
+                                              "PRJEB" + (1000 + random.nextInt(50)),
+                                              genBank(1 + random.nextInt(CHROMOSOME_COUNT)),
+                                              1 + random.nextInt(250_000_000), alleles[0], alleles[1], null));
+        }
+        return variants;
+    }
+
+    public static List<IClusteredVariant> clusteredVariants(int count) {
+        Random random = new Random(SEED);
+        VariantType[] types = {VariantType.SNV, VariantType.SNV, VariantType.SNV, VariantType.INS, VariantType.DEL,
+                VariantType.MNV};
+        List<IClusteredVariant> variants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            variants.add(new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION,
+                                              genBank(1 + random.nextInt(CHROMOSOME_COUNT)),
+                                              1 + random.nextInt(250_000_000), types[random.nextInt(types.length)],
+                                              false, null));
+        }
+        return variants;
+    }
+
+    /**
+     * Returns a reference and alternate allele pair, mostly SNVs with some short insertions and deletions.
+     */
+    public static String[] alleles(Random random) {
+        int kind = random.nextInt(10);
+        String reference = BASES[random.nextInt(BASES.length)];
+        if (kind < 8) {
+            String alternate;
+            do {
+                alternate = BASES[random.nextInt(BASES.length)];
+            } while (alternate.equals(reference));
+            return new String[]{reference, alternate};
+        } else if (kind < 9) {
+            return new String[]{"", randomSequence(random, 1 + random.nextInt(5))};
+        } else {
+            return new String[]{randomSequence(random, 1 + random.nextInt(5)), ""};
+        }
+    }
+
+    public static String randomSequence(Random random, int length) {
+        StringBuilder sequence = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sequence.append(BASES[random.nextInt(BASES.length)]);
+        }
+        return sequence.toString();
+    }
+}
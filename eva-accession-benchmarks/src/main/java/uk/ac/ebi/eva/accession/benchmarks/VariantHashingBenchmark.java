@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
+
+import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
+import uk.ac.ebi.eva.accession.core.model.eva.ClusteredVariantEntity;
+import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the summary + hashing functions used to compute the hashed message (the document ID) of submitted and
+ * clustered variants, compared with the hashing functions that don't build the summary string.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VariantHashingBenchmark {
+
+    private static final int VARIANTS = 1000;
+
+    private List<ISubmittedVariant> submittedVariants;
+
+    private List<IClusteredVariant> clusteredVariants;
+
+    private SubmittedVariantSummaryFunction submittedVariantSummaryFunction;
+
+    private ClusteredVariantSummaryFunction clusteredVariantSummaryFunction;
+
+    private Function<ISubmittedVariant, String> submittedVariantHashingFunction;
+
+    private Function<IClusteredVariant, String> clusteredVariantHashingFunction;
+
+    private SubmittedVariantHashingFunction submittedVariantSummaryFreeHashingFunction;
+
+    private ClusteredVariantHashingFunction clusteredVariantSummaryFreeHashingFunction;
+
+    @Setup
+    public void setUp() {
+        // entities don't memoize their hash, so every invocation measures the whole computation
+        submittedVariants = SyntheticData.submittedVariants(VARIANTS)
+                                         .stream()
+                                         .map(variant -> new SubmittedVariantEntity(null, null, variant, 1))
+                                         .collect(Collectors.toList());
+        clusteredVariants = SyntheticData.clusteredVariants(VARIANTS)
+                                         .stream()
+                                         .map(variant -> new ClusteredVariantEntity(null, null, variant))
+                                         .collect(Collectors.toList());
+        submittedVariantSummaryFunction = new SubmittedVariantSummaryFunction();
+        clusteredVariantSummaryFunction = new ClusteredVariantSummaryFunction();
+        submittedVariantHashingFunction = submittedVariantSummaryFunction.andThen(new SHA1HashingFunction());
+        clusteredVariantHashingFunction = clusteredVariantSummaryFunction.andThen(new SHA1HashingFunction());
+        submittedVariantSummaryFreeHashingFunction = new SubmittedVariantHashingFunction();
+        clusteredVariantSummaryFreeHashingFunction = new ClusteredVariantHashingFunction();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIANTS)
+    public void submittedVariantSummary(Blackhole blackhole) {
+        for (ISubmittedVariant variant : submittedVariants) {
+            blackhole.consume(submittedVariantSummaryFunction.apply(variant));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIANTS)
+    public void submittedVariantHash(Blackhole blackhole) {
+        for (ISubmittedVariant variant : submittedVariants) {
+            blackhole.consume(submittedVariantHashingFunction.apply(variant));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIANTS)
+    public void submittedVariantHashWithoutSummary(Blackhole blackhole) {
+        for (ISubmittedVariant variant : submittedVariants) {
+            blackhole.consume(submittedVariantSummaryFreeHashingFunction.apply(variant));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIANTS)
+    public void clusteredVariantSummary(Blackhole blackhole) {
+        for (IClusteredVariant variant : clusteredVariants) {
+            blackhole.consume(clusteredVariantSummaryFunction.apply(variant));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIANTS)
+    public void clusteredVariantHash(Blackhole blackhole) {
+        for (IClusteredVariant variant : clusteredVariants) {
+            blackhole.consume(clusteredVariantHashingFunction.apply(variant));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIANTS)
+    public void clusteredVariantHashWithoutSummary(Blackhole blackhole) {
+        for (IClusteredVariant variant : clusteredVariants) {
+            blackhole.consume(clusteredVariantSummaryFreeHashingFunction.apply(variant));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
+import uk.ac.ebi.eva.accession.release.batch.processors.VariantToVariantContextProcessor;
+import uk.ac.ebi.eva.commons.core.models.IVariant;
+import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
+import uk.ac.ebi.eva.commons.core.models.pipeline.VariantSourceEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ebi.eva.accession.release.batch.io.VariantMongoAggregationReader.ALLELES_MATCH_KEY;
+import static uk.ac.ebi.eva.accession.release.batch.io.VariantMongoAggregationReader.ASSEMBLY_MATCH_KEY;
+import static uk.ac.ebi.eva.accession.release.batch.io.VariantMongoAggregationReader.CLUSTERED_VARIANT_VALIDATED_KEY;
+import static uk.ac.ebi.eva.accession.release.batch.io.VariantMongoAggregationReader.STUDY_ID_KEY;
+import static uk.ac.ebi.eva.accession.release.batch.io.VariantMongoAggregationReader.SUBMITTED_VARIANT_VALIDATED_KEY;
+import static uk.ac.ebi.eva.accession.release.batch.io.VariantMongoAggregationReader.SUPPORTED_BY_EVIDENCE_KEY;
+import static uk.ac.ebi.eva.accession.release.batch.io.VariantMongoAggregationReader.VARIANT_CLASS_KEY;
+
+/**
+ * Measures the conversion of release variants into htsjdk VariantContexts, including the translation of the contig
+ * into the chromosome name.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VariantToVariantContextProcessorBenchmark {
+
+    private static final int VARIANTS = 1000;
+
+    private static final int MAX_STUDIES_PER_VARIANT = 4;
+
+    private VariantToVariantContextProcessor processor;
+
+    private List<IVariant> variants;
+
+    @Setup
+    public void setUp() {
+        processor = new VariantToVariantContextProcessor(new ContigMapping(SyntheticData.contigSynonyms()));
+
+        Random random = new Random(SyntheticData.SEED);
+        variants = new ArrayList<>(VARIANTS);
+        for (int i = 0; i < VARIANTS; i++) {
+            String contig = SyntheticData.genBank(1 + random.nextInt(SyntheticData.CHROMOSOME_COUNT));
+            long start = 2 + random.nextInt(250_000_000);
+            String reference = SyntheticData.randomSequence(random, 1);
+            String alternate = reference + SyntheticData.randomSequence(random, random.nextInt(3));
+            if (alternate.equals(reference)) {
+                alternate = reference.equals("A") ? "C" : "A";
+            }
+            long end = start + Math.max(reference.length(), alternate.length()) - 1;
+            Variant variant = new Variant(contig, start, end, reference, alternate);
+            variant.setMainId("rs" + (1000 + i));
+            variant.setIds(Collections.singleton(variant.getMainId()));
+            int studies = 1 + random.nextInt(MAX_STUDIES_PER_VARIANT);
+            for (int j = 0; j < studies; j++) {
+                variant.addSourceEntry(buildSourceEntry("PRJEB" + (1000 + random.nextInt(50)), random));
+            }
+            variants.add(variant);
+        }
+    }
+
+    private VariantSourceEntry buildSourceEntry(String study, Random random) {
+        VariantSourceEntry sourceEntry = new VariantSourceEntry(study, study);
+        sourceEntry.addAttribute(VARIANT_CLASS_KEY, "SO:0001483");
+        sourceEntry.addAttribute(STUDY_ID_KEY, study);
+        sourceEntry.addAttribute(CLUSTERED_VARIANT_VALIDATED_KEY, Boolean.toString(random.nextBoolean()));
+        sourceEntry.addAttribute(SUBMITTED_VARIANT_VALIDATED_KEY, Boolean.toString(random.nextBoolean()));
+        sourceEntry.addAttribute(ALLELES_MATCH_KEY, Boolean.toString(random.nextInt(10) != 0));
+        sourceEntry.addAttribute(ASSEMBLY_MATCH_KEY, Boolean.toString(random.nextInt(10) != 0));
+        sourceEntry.addAttribute(SUPPORTED_BY_EVIDENCE_KEY, Boolean.toString(random.nextBoolean()));
+        return sourceEntry;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VARIANTS)
+    public void process(Blackhole blackhole) {
+        for (IVariant variant : variants) {
+            blackhole.consume(processor.process(variant));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.release.batch.io;
+
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.ac.ebi.eva.accession.benchmarks.SyntheticData;
+import uk.ac.ebi.eva.commons.core.models.VariantType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversion of the documents returned by the release aggregation (a clustered variant with its
+ * submitted variants in {@link VariantMongoAggregationReader#SS_INFO_FIELD}) into Variants.
+ *
+ * This class lives in the reader package because {@link VariantMongoAggregationReader#getVariants} is package-private.
+ * No connection to MongoDB is opened; the documents are built in memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VariantMongoAggregationReaderBenchmark {
+
+    private static final int DOCUMENTS = 1000;
+
+    private static final int MAX_SUBMITTED_VARIANTS_PER_DOCUMENT = 6;
+
+    private AccessionedVariantMongoReader reader;
+
+    private List<Document> clusteredVariants;
+
+    @Setup
+    public void setUp() {
+        reader = new AccessionedVariantMongoReader(SyntheticData.ASSEMBLY_ACCESSION, null, null, DOCUMENTS);
+
+        Random random = new Random(SyntheticData.SEED);
+        clusteredVariants = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            String contig = SyntheticData.genBank(1 + random.nextInt(SyntheticData.CHROMOSOME_COUNT));
+            long start = 1 + random.nextInt(250_000_000);
+            Document clusteredVariant = new Document(CONTIG_FIELD, contig)
+                    .append(START_FIELD, start)
+                    .append(ACCESSION_FIELD, 1000L + i)
+                    .append(TYPE_FIELD, VariantType.SNV.toString())
+                    .append(VALIDATED_FIELD, random.nextBoolean());
+
+            List<Document> submittedVariants = new ArrayList<>();
+            int submittedVariantCount = 1 + random.nextInt(MAX_SUBMITTED_VARIANTS_PER_DOCUMENT);
+            for (int j = 0; j < submittedVariantCount; j++) {
+                String[] alleles = SyntheticData.alleles(random);
+                submittedVariants.add(new Document(CONTIG_FIELD, contig)
+                                              .append(START_FIELD, start)
+                                              .append(REFERENCE_ALLELE_FIELD, alleles[0])
+                                              .append(ALTERNATE_ALLELE_FIELD, alleles[1])
+                                              .append(STUDY_FIELD, "PRJEB" + (1000 + random.nextInt(50)))
+                                              .append(VALIDATED_FIELD, random.nextBoolean())
+                                              .append(ALLELES_MATCH_FIELD, random.nextInt(10) != 0)
+                                              .append(ASSEMBLY_MATCH_FIELD, random.nextInt(10) != 0)
+                                              .append(SUPPORTED_BY_EVIDENCE_FIELD, random.nextBoolean()));
+            }
+            clusteredVariant.append(SS_INFO_FIELD, submittedVariants);
+            clusteredVariants.add(clusteredVariant);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void getVariants(Blackhole blackhole) {
+        for (Document clusteredVariant : clusteredVariants) {
+            blackhole.consume(reader.getVariants(clusteredVariant));
+        }
+    }
+}
@@ -24,16 +24,17 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import uk.ac.ebi.ampt2d.commons.accession.core.exceptions.AccessionCouldNotBeGeneratedException;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.GetOrCreateAccessionWrapper;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
 import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
 import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.eva.ClusteredVariantMonotonicAccessioningService;
-import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
 import uk.ac.ebi.eva.commons.core.models.VariantClassifier;
 import uk.ac.ebi.eva.commons.core.models.VariantType;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -64,7 +65,7 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
         this.assemblyAccession = assemblyAccession;
         this.mongoTemplate = mongoTemplate;
         this.clusteredVariantMonotonicAccessioningService = clusteredVariantMonotonicAccessioningService;
-        hashingFunction = new ClusteredVariantSummaryFunction().andThen(new SHA1HashingFunction());
+        hashingFunction = new ClusteredVariantHashingFunction();
         this.assignedAccessions = new HashMap<>();
     }
 
@@ -72,27 +73,40 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
     public void write(List<? extends SubmittedVariantEntity> submittedVariantEntities)
             throws MongoBulkWriteException, AccessionCouldNotBeGeneratedException {
         assignedAccessions.clear();
+        // Each ClusteredVariant is built once and keeps its hash once computed, so the accessioning service and the
+        // update of the submitted variants below reuse it instead of hashing every variant twice
+        List<ClusteredVariant> clusteredVariants = submittedVariantEntities.stream()
+                                                                           .map(this::toClusteredVariant)
+                                                                           .collect(Collectors.toList());
         //Write new Clustered Variants in mongo and get existing ones
-        getOrCreateClusteredVariantAccessions(submittedVariantEntities);
+        getOrCreateClusteredVariantAccessions(clusteredVariants);
         //Update submitted variants "rs" field
         BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
                                                               SubmittedVariantEntity.class);
-        for (SubmittedVariantEntity submittedVariantEntity : submittedVariantEntities) {
-            Query query = query(where("_id").is(submittedVariantEntity.getId()));
+        for (int i = 0; i < submittedVariantEntities.size(); i++) {
+            Query query = query(where("_id").is(submittedVariantEntities.get(i).getId()));
             Update update = new Update();
-            update.set("rs", getClusteredVariantAccession(submittedVariantEntity));
+            update.set("rs", getClusteredVariantAccession(clusteredVariants.get(i)));
             bulkOperations.updateOne(query, update);
         }
         bulkOperations.execute();
     }
 
-    private void getOrCreateClusteredVariantAccessions(List<? extends SubmittedVariantEntity> submittedVariantEntities)
+    /**
+     * Several submitted variants of the chunk (e.g. from different studies) usually map to the same clustered variant,
+     * so only one clustered variant per hash is sent to the accessioning service, and all the submitted variants get
+     * its accession afterwards from {@link #assignedAccessions}. The first clustered variant of every hash is kept, as
+     * the accessioning service itself would do.
+     */
+    private void getOrCreateClusteredVariantAccessions(List<ClusteredVariant> clusteredVariants)
             throws AccessionCouldNotBeGeneratedException {
-        List<ClusteredVariant> clusteredVariants = submittedVariantEntities.stream()
-                                                                           .map(this::toClusteredVariant)
-                                                                           .collect(Collectors.toList());
+        Map<String, ClusteredVariant> uniqueClusteredVariants = new LinkedHashMap<>();
+        for (ClusteredVariant clusteredVariant : clusteredVariants) {
+            uniqueClusteredVariants.putIfAbsent(hashingFunction.apply(clusteredVariant), clusteredVariant);
+        }
         List<GetOrCreateAccessionWrapper<IClusteredVariant, String, Long>> accessionWrappers =
-                clusteredVariantMonotonicAccessioningService.getOrCreate(clusteredVariants);
+                clusteredVariantMonotonicAccessioningService.getOrCreate(
+                        new ArrayList<>(uniqueClusteredVariants.values()));
         accessionWrappers.forEach(x -> assignedAccessions.put(x.getHash(), x.getAccession()));
     }
 
@@ -114,14 +128,8 @@ public class ClusteringWriter implements ItemWriter<SubmittedVariantEntity> {
         return variantType;
     }
 
-    private Long getClusteredVariantAccession(SubmittedVariantEntity submittedVariantEntity) {
-        String hash = getClusteredVariantHash(submittedVariantEntity);
-        return assignedAccessions.get(hash);
-    }
-
-    private String getClusteredVariantHash(SubmittedVariantEntity submittedVariantEntity) {
-        ClusteredVariant clusteredVariant = toClusteredVariant(submittedVariantEntity);
+    private Long getClusteredVariantAccession(ClusteredVariant clusteredVariant) {
         String hash = hashingFunction.apply(clusteredVariant);
-        return hash;
+        return assignedAccessions.get(hash);
     }
 }
@@ -17,12 +17,11 @@ package uk.ac.ebi.eva.accession.clustering.batch.processors;
 
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.util.Assert;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 
 import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
 import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
 import uk.ac.ebi.eva.accession.core.model.eva.SubmittedVariantEntity;
-import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 
 import java.util.function.Function;
@@ -38,7 +37,7 @@ public class VariantToSubmittedVariantEntityProcessor implements ItemProcessor<V
     public VariantToSubmittedVariantEntityProcessor(String assemblyAccession, String projectAccession) {
         this.assemblyAccession = assemblyAccession;
         this.projectAccession = projectAccession;
-        hashingFunction = new SubmittedVariantSummaryFunction().andThen(new SHA1HashingFunction());
+        hashingFunction = new SubmittedVariantHashingFunction();
     }
 
     @Override
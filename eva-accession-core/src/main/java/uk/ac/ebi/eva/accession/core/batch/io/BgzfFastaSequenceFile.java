@@ -0,0 +1,279 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads bases of a FASTA file compressed with bgzip, using its ".fai" index to find the position of the bases in the
+ * uncompressed file, and its ".gzi" index to find the compressed block that contains that position. Both indexes can
+ * be created with "samtools faidx".
+ *
+ * The most recently used blocks are kept uncompressed in memory, so reading nearby positions only inflates every
+ * block once. The file is read with absolute positions and the cache is synchronized, so an instance can be used by
+ * several threads at the same time.
+ *
+ * @see <a href="https://samtools.github.io/hts-specs/SAMv1.pdf">BGZF format, section 4.1 of the SAM specification</a>
+ */
+public class BgzfFastaSequenceFile implements RandomAccessFastaFile {
+
+    static final String GZI_INDEX_EXTENSION = ".gzi";
+
+    /** Default number of uncompressed blocks kept in memory, each one has up to 64KB */
+    private static final int DEFAULT_CACHED_BLOCKS = 64;
+
+    private static final int GZIP_ID1 = 0x1f;
+
+    private static final int GZIP_ID2 = 0x8b;
+
+    private static final int GZIP_FLAG_EXTRA = 4;
+
+    /** Length of the gzip header before the extra subfields */
+    private static final int HEADER_LENGTH = 12;
+
+    /** Length of the CRC32 and ISIZE fields at the end of every block */
+    private static final int FOOTER_LENGTH = 8;
+
+    private static final int MAX_BLOCK_SIZE = 1 << 16;
+
+    private final Path fastaPath;
+
+    private final FastaIndex index;
+
+    private final FileChannel channel;
+
+    /** Position of every block in the compressed file, sorted */
+    private final long[] blockCompressedOffsets;
+
+    /** Position of the first byte of every block in the uncompressed file, sorted */
+    private final long[] blockUncompressedOffsets;
+
+    private final Map<Integer, byte[]> blockCache;
+
+    public BgzfFastaSequenceFile(Path fastaPath) throws IOException {
+        this(fastaPath, DEFAULT_CACHED_BLOCKS);
+    }
+
+    /**
+     * @param fastaPath FASTA file compressed with bgzip, with its ".fai" and ".gzi" indexes next to it
+     * @param cachedBlocks Maximum number of uncompressed blocks kept in memory
+     */
+    public BgzfFastaSequenceFile(Path fastaPath, int cachedBlocks) throws IOException {
+        Path faiPath = FastaIndex.getIndexPath(fastaPath);
+        Path gziPath = fastaPath.resolveSibling(fastaPath.getFileName() + GZI_INDEX_EXTENSION);
+        if (!Files.exists(faiPath) || !Files.exists(gziPath)) {
+            throw new IllegalArgumentException(
+                    "Compressed FASTA file " + fastaPath + " needs the indexes " + faiPath + " and " + gziPath
+                            + ", which can be created with 'samtools faidx'");
+        }
+        this.fastaPath = fastaPath;
+        this.index = FastaIndex.read(faiPath);
+
+        ByteBuffer gzi = ByteBuffer.wrap(Files.readAllBytes(gziPath)).order(ByteOrder.LITTLE_ENDIAN);
+        // the first block starts at 0 in both files, and is not included in the index
+        int blocks = (int) gzi.getLong() + 1;
+        blockCompressedOffsets = new long[blocks];
+        blockUncompressedOffsets = new long[blocks];
+        for (int i = 1; i < blocks; i++) {
+            blockCompressedOffsets[i] = gzi.getLong();
+            blockUncompressedOffsets[i] = gzi.getLong();
+        }
+
+        this.blockCache = new LinkedHashMap<Integer, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+                return size() > cachedBlocks;
+            }
+        };
+        this.channel = FileChannel.open(fastaPath, StandardOpenOption.READ);
+    }
+
+    /**
+     * @return True if the file starts with a BGZF block, i.e. a gzip member with the "BC" extra subfield
+     */
+    public static boolean isBgzf(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH + 6).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    return false;
+                }
+            }
+        }
+        return (header.get(0) & 0xff) == GZIP_ID1 && (header.get(1) & 0xff) == GZIP_ID2
+                && (header.get(3) & GZIP_FLAG_EXTRA) != 0
+                && header.get(HEADER_LENGTH) == 'B' && header.get(HEADER_LENGTH + 1) == 'C';
+    }
+
+    FastaIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public String getSubsequence(String contig, long start, long end) {
+        FastaIndex.Entry entry = index.getEntry(contig, start, end);
+        byte[] bases = new byte[(int) (end - start + 1)];
+        long position = start - 1;
+        int copied = 0;
+        while (copied < bases.length) {
+            // copy the rest of the line, or the rest of the sequence if it ends in the same line
+            int count = Math.min(entry.getRemainingLineBases(position), bases.length - copied);
+            copyUncompressed(entry.getOffset(position), bases, copied, count);
+            copied += count;
+            position += count;
+        }
+        return new String(bases, StandardCharsets.US_ASCII);
+    }
+
+    private void copyUncompressed(long offset, byte[] destination, int destinationOffset, int count) {
+        while (count > 0) {
+            int block = findBlock(offset);
+            byte[] data = getBlock(block);
+            int offsetInBlock = (int) (offset - blockUncompressedOffsets[block]);
+            int copied = Math.min(count, data.length - offsetInBlock);
+            if (copied <= 0) {
+                throw new IllegalStateException(
+                        "Position " + offset + " not found in the blocks of " + fastaPath + ", is the .gzi index up "
+                                + "to date?");
+            }
+            System.arraycopy(data, offsetInBlock, destination, destinationOffset, copied);
+            offset += copied;
+            destinationOffset += copied;
+            count -= copied;
+        }
+    }
+
+    /**
+     * @return Last block that starts before or at the given uncompressed position
+     */
+    private int findBlock(long uncompressedOffset) {
+        int low = 0;
+        int high = blockUncompressedOffsets.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (blockUncompressedOffsets[middle] <= uncompressedOffset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private byte[] getBlock(int block) {
+        byte[] data;
+        synchronized (blockCache) {
+            data = blockCache.get(block);
+        }
+        if (data == null) {
+            try {
+                data = readBlock(blockCompressedOffsets[block]);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading compressed FASTA file " + fastaPath, e);
+            }
+            synchronized (blockCache) {
+                blockCache.put(block, data);
+            }
+        }
+        return data;
+    }
+
+    private byte[] readBlock(long compressedOffset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(header, compressedOffset);
+        if ((header.get(0) & 0xff) != GZIP_ID1 || (header.get(1) & 0xff) != GZIP_ID2
+                || (header.get(3) & GZIP_FLAG_EXTRA) == 0) {
+            throw new IOException("Invalid BGZF block at position " + compressedOffset);
+        }
+        int extraLength = header.getShort(10) & 0xffff;
+        ByteBuffer extra = ByteBuffer.allocate(extraLength).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(extra, compressedOffset + HEADER_LENGTH);
+        int blockSize = getBlockSize(extra, compressedOffset);
+
+        int compressedLength = blockSize - HEADER_LENGTH - extraLength - FOOTER_LENGTH;
+        ByteBuffer compressed = ByteBuffer.allocate(compressedLength + FOOTER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(compressed, compressedOffset + HEADER_LENGTH + extraLength);
+        int uncompressedLength = compressed.getInt(compressedLength + 4);
+
+        byte[] data = new byte[uncompressedLength];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed.array(), 0, compressedLength);
+            int inflated = 0;
+            while (inflated < uncompressedLength && !inflater.finished()) {
+                int count = inflater.inflate(data, inflated, uncompressedLength - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != uncompressedLength) {
+                throw new IOException("BGZF block at position " + compressedOffset + " is truncated");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("BGZF block at position " + compressedOffset + " can't be inflated", e);
+        } finally {
+            inflater.end();
+        }
+        return data;
+    }
+
+    /**
+     * Finds the total size of the block, stored in the "BC" extra subfield
+     */
+    private int getBlockSize(ByteBuffer extra, long compressedOffset) throws IOException {
+        int subfieldStart = 0;
+        while (subfieldStart + 4 <= extra.capacity()) {
+            int subfieldLength = extra.getShort(subfieldStart + 2) & 0xffff;
+            if (extra.get(subfieldStart) == 'B' && extra.get(subfieldStart + 1) == 'C' && subfieldLength == 2) {
+                int blockSize = (extra.getShort(subfieldStart + 4) & 0xffff) + 1;
+                if (blockSize > MAX_BLOCK_SIZE) {
+                    break;
+                }
+                return blockSize;
+            }
+            subfieldStart += 4 + subfieldLength;
+        }
+        throw new IOException("BGZF block at position " + compressedOffset + " has no valid block size");
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of compressed FASTA file " + fastaPath);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
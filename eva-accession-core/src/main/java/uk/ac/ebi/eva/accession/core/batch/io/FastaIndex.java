@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contents of a ".fai" FASTA index: the length of every sequence, where it starts in the (uncompressed) FASTA file,
+ * and how its bases are split in lines.
+ */
+class FastaIndex {
+
+    static final String INDEX_EXTENSION = ".fai";
+
+    private final Map<String, Entry> entries;
+
+    private FastaIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    static Path getIndexPath(Path fastaPath) {
+        return fastaPath.resolveSibling(fastaPath.getFileName() + INDEX_EXTENSION);
+    }
+
+    static FastaIndex read(Path indexPath) throws IOException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(indexPath, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] columns = line.split("\t");
+                if (columns.length < 5) {
+                    throw new IllegalArgumentException("Invalid line in FASTA index " + indexPath + ": '" + line + "'");
+                }
+                entries.put(columns[0], new Entry(Long.parseLong(columns[1]), Long.parseLong(columns[2]),
+                                                  Integer.parseInt(columns[3]), Integer.parseInt(columns[4])));
+            }
+        }
+        return new FastaIndex(entries);
+    }
+
+    /**
+     * @return Sequence names and their entries, in the same order as the index
+     */
+    Map<String, Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return Entry of the sequence, or null if it's not in the index
+     */
+    Entry getEntry(String contig) {
+        return entries.get(contig);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the contig is not in the index or the coordinates are outside of it
+     */
+    Entry getEntry(String contig, long start, long end) {
+        Entry entry = entries.get(contig);
+        if (entry == null) {
+            throw new IllegalArgumentException("Sequence " + contig + " not found in FASTA index");
+        }
+        if (start < 1 || end < start || end > entry.getLength()) {
+            throw new IllegalArgumentException("Coordinates " + start + "-" + end + " out of sequence " + contig
+                                                       + " of length " + entry.getLength());
+        }
+        return entry;
+    }
+
+    static class Entry {
+
+        private final long length;
+
+        private final long offset;
+
+        private final int lineBases;
+
+        private final int lineWidth;
+
+        Entry(long length, long offset, int lineBases, int lineWidth) {
+            this.length = length;
+            this.offset = offset;
+            this.lineBases = lineBases;
+            this.lineWidth = lineWidth;
+        }
+
+        long getLength() {
+            return length;
+        }
+
+        /**
+         * @param position 0-based coordinate of a base in the sequence
+         * @return Position of that base in the FASTA file
+         */
+        long getOffset(long position) {
+            return offset + (position / lineBases) * lineWidth + position % lineBases;
+        }
+
+        /**
+         * @param position 0-based coordinate of a base in the sequence
+         * @return Number of bases from that one to the end of its line, both included
+         */
+        int getRemainingLineBases(long position) {
+            return lineBases - (int) (position % lineBases);
+        }
+    }
+}
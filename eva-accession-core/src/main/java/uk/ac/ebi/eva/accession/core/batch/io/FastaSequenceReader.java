@@ -21,34 +21,125 @@ import htsjdk.samtools.reference.FastaSequenceIndexCreator;
 import htsjdk.samtools.reference.ReferenceSequence;
 import htsjdk.samtools.reference.ReferenceSequenceFile;
 import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import uk.ac.ebi.eva.accession.core.exceptions.PositionOutsideOfContigException;
+import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
 import uk.ac.ebi.eva.commons.core.utils.FileUtils;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Reads regions from a given FASTA file, and also creates the associated index and dictionary files if they do not
  * exist.
+ *
+ * The sequences can be read from several threads at the same time: the memory-mapped and bgzip-compressed FASTA files
+ * are thread-safe, and otherwise every read borrows one of a limited number of htsjdk handles, see
+ * {@link ReferenceSequenceFilePool}.
+ *
+ * Optionally, single bases of a file read through htsjdk can be served from a window of bases around the last position
+ * read in the same contig, which is only read again when a base outside of it is requested. This only helps when the
+ * variants arrive sorted by contig and start, so that most of the context bases are found in the window without
+ * reading the file. The memory-mapped and bgzip-compressed files don't use the window, because they already read
+ * single bases without seeking in the file.
+ *
+ * Like the handles, the windows are borrowed by the threads that read a base and returned after it, so that the
+ * memory they use doesn't grow with the number of threads created by the task executor.
  */
 public class FastaSequenceReader {
 
     private static final Logger logger = LoggerFactory.getLogger(FastaSequenceReader.class);
 
+    /** Maximum length of the regions read by {@link #getBases(List)} to retrieve several bases at once */
+    private static final int MAX_REGION_LENGTH = 4096;
+
+    private static final long NO_CONTEXT_NUCLEOTIDE = 0;
+
+    /**
+     * The window also keeps 1/64 of its bases before the requested position, in case some variants are not sorted
+     */
+    private static final int WINDOW_BASES_BEFORE_RATIO = 64;
+
+    /** Maximum number of contigs whose windows are kept in each set of windows */
+    private static final int MAX_WINDOWS_PER_SET = 16;
+
+    /** Maximum number of htsjdk handles of the FASTA file, and of sets of windows kept between reads */
+    private static final int MAX_CONCURRENT_READERS = Runtime.getRuntime().availableProcessors();
+
     private ReferenceSequenceFile fastaSequenceFile;
 
+    /** Handles of the FASTA file borrowed by the threads that read through htsjdk */
+    private ReferenceSequenceFilePool fastaSequenceFilePool;
+
+    /** FASTA file read without htsjdk, when it's memory-mapped or compressed; null if it's read through htsjdk */
+    private RandomAccessFastaFile randomAccessFastaFile;
+
     protected SAMSequenceDictionary sequenceDictionary;
 
+    /** Number of bases read from the FASTA file when a single base is not found in its window, or 0 if disabled */
+    private final int windowLength;
+
+    /**
+     * Sets with the last window read in every contig, which are not being used by any thread. Every thread reading a
+     * base takes its own set, so that threads reading different regions don't replace each other's windows, and at
+     * most {@link #MAX_CONCURRENT_READERS} sets are kept after they are returned
+     */
+    private final Deque<Map<String, SequenceWindow>> idleSequenceWindows;
+
+    private final AtomicLong windowHits = new AtomicLong();
+
+    private final AtomicLong windowMisses = new AtomicLong();
+
     public FastaSequenceReader(Path fastaPath) throws IOException {
-        checkFastaIsUncompressed(fastaPath);
+        this(fastaPath, false);
+    }
+
+    public FastaSequenceReader(Path fastaPath, boolean memoryMapped) throws IOException {
+        this(fastaPath, memoryMapped, 0);
+    }
+
+    /**
+     * @param fastaPath FASTA file, either uncompressed or compressed with bgzip. See {@link BgzfFastaSequenceFile} for
+     * the requirements of compressed files
+     * @param memoryMapped If true, the sequences of an uncompressed file are read from a memory-mapped view of the
+     * FASTA file instead of through htsjdk. See {@link MappedFastaSequenceFile}
+     * @param windowLength Number of bases read at once when a single base is requested, which are kept to serve the
+     * following bases of the same contig. 0 disables the window. It's ignored for memory-mapped and compressed files
+     */
+    public FastaSequenceReader(Path fastaPath, boolean memoryMapped, int windowLength) throws IOException {
+        if (windowLength < 0) {
+            throw new IllegalArgumentException("The window length must be 0 or greater, but was " + windowLength);
+        }
+        if (FileUtils.isGzip(fastaPath.toFile())) {
+            openCompressedFasta(fastaPath);
+        } else {
+            openUncompressedFasta(fastaPath, memoryMapped);
+        }
+        if (windowLength > 0 && randomAccessFastaFile != null) {
+            logger.info("FASTA file {} is not read through htsjdk, the window of {} bases is not used", fastaPath,
+                        windowLength);
+            windowLength = 0;
+        }
+        this.windowLength = windowLength;
+        this.idleSequenceWindows = new ArrayDeque<>();
+    }
+
+    private void openUncompressedFasta(Path fastaPath, boolean memoryMapped) throws IOException {
         fastaSequenceFile = ReferenceSequenceFileFactory.getReferenceSequenceFile(fastaPath, true);
         sequenceDictionary = fastaSequenceFile.getSequenceDictionary();
 
@@ -61,17 +152,36 @@ public class FastaSequenceReader {
             FastaSequenceIndexCreator.create(fastaPath, true);
             fastaSequenceFile = ReferenceSequenceFileFactory.getReferenceSequenceFile(fastaPath, true);
         }
+        if (memoryMapped) {
+            randomAccessFastaFile = new MappedFastaSequenceFile(fastaPath);
+        } else {
+            fastaSequenceFilePool = new ReferenceSequenceFilePool(fastaPath, MAX_CONCURRENT_READERS);
+        }
     }
 
     /**
-     * Require the fasta to be uncompressed. Htsjdk seems to support reading and indexing compressed fastas, but for
-     * some reason, when asked for a reference, it returns \0 at every position. this test shows the error:
-     * uk.ac.ebi.eva.accession.pipeline.batch.io.FastaSequenceReaderTest#htsDoesNotSupportCompressedFastas()
+     * Compressed FASTA files are not read through htsjdk. Htsjdk seems to support reading and indexing compressed
+     * fastas, but for some reason, when asked for a reference, it returns \0 at every position. this test shows the
+     * error: uk.ac.ebi.eva.accession.pipeline.batch.io.FastaSequenceReaderTest#htsDoesNotSupportCompressedFastas()
+     *
+     * Instead, files compressed with bgzip are read by {@link BgzfFastaSequenceFile}, and other compressed files are
+     * not supported, because they don't allow random access.
      */
-    private void checkFastaIsUncompressed(Path fastaPath) throws IOException {
-        if (FileUtils.isGzip(fastaPath.toFile())) {
-            throw new IllegalArgumentException("Fasta file should not be compressed: " + fastaPath);
+    private void openCompressedFasta(Path fastaPath) throws IOException {
+        if (!BgzfFastaSequenceFile.isBgzf(fastaPath)) {
+            throw new IllegalArgumentException(
+                    "Fasta file should not be compressed, or be compressed with bgzip: " + fastaPath);
         }
+        BgzfFastaSequenceFile bgzfFastaFile = new BgzfFastaSequenceFile(fastaPath);
+        sequenceDictionary = createSequenceDictionary(bgzfFastaFile.getIndex());
+        randomAccessFastaFile = bgzfFastaFile;
+    }
+
+    private SAMSequenceDictionary createSequenceDictionary(FastaIndex fastaIndex) {
+        List<SAMSequenceRecord> records = new ArrayList<>();
+        fastaIndex.getEntries().forEach(
+                (contig, entry) -> records.add(new SAMSequenceRecord(contig, (int) entry.getLength())));
+        return new SAMSequenceDictionary(records);
     }
 
     /**
@@ -108,8 +218,68 @@ public class FastaSequenceReader {
      */
     public String getSequence(String contig, long start, long end) throws IllegalArgumentException {
         checkArguments(contig, start, end);
+        return readSequence(contig, start, end);
+    }
+
+    /**
+     * Reads a sequence from the FASTA file, without checking that the contig exists and the coordinates are inside it.
+     * If the window is enabled, single bases are read from the window of the contig in a borrowed set of windows, see
+     * {@link SequenceWindow}.
+     */
+    protected String readSequence(String contig, long start, long end) {
+        if (start == end && windowLength > 0) {
+            return readBase(contig, start);
+        }
+        return readFile(contig, start, end);
+    }
+
+    private String readBase(String contig, long position) {
+        Map<String, SequenceWindow> sequenceWindows = borrowSequenceWindows();
+        try {
+            SequenceWindow window = sequenceWindows.get(contig);
+            if (window != null && window.contains(position)) {
+                windowHits.incrementAndGet();
+            } else {
+                windowMisses.incrementAndGet();
+                long windowStart = Math.max(1, position - windowLength / WINDOW_BASES_BEFORE_RATIO);
+                long windowEnd = Math.min(sequenceDictionary.getSequence(contig).getSequenceLength(),
+                                          windowStart + windowLength - 1);
+                window = new SequenceWindow(windowStart, readFile(contig, windowStart, windowEnd));
+                sequenceWindows.put(contig, window);
+            }
+            return window.getBase(position);
+        } finally {
+            giveBackSequenceWindows(sequenceWindows);
+        }
+    }
 
-        return fastaSequenceFile.getSubsequenceAt(contig, start, end).getBaseString();
+    private Map<String, SequenceWindow> borrowSequenceWindows() {
+        synchronized (idleSequenceWindows) {
+            if (!idleSequenceWindows.isEmpty()) {
+                return idleSequenceWindows.pop();
+            }
+        }
+        return new LinkedHashMap<String, SequenceWindow>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SequenceWindow> eldest) {
+                return size() > MAX_WINDOWS_PER_SET;
+            }
+        };
+    }
+
+    private void giveBackSequenceWindows(Map<String, SequenceWindow> sequenceWindows) {
+        synchronized (idleSequenceWindows) {
+            if (idleSequenceWindows.size() < MAX_CONCURRENT_READERS) {
+                idleSequenceWindows.push(sequenceWindows);
+            }
+        }
+    }
+
+    private String readFile(String contig, long start, long end) {
+        if (randomAccessFastaFile != null) {
+            return randomAccessFastaFile.getSubsequence(contig, start, end);
+        }
+        return fastaSequenceFilePool.getSubsequenceAt(contig, start, end);
     }
 
     /**
@@ -130,19 +300,27 @@ public class FastaSequenceReader {
     }
 
     private void checkArguments(String contig, long start, long end) throws IllegalArgumentException {
+        checkStartAndEnd(start, end);
+        if (!doesContigExist(contig)) {
+            throw new IllegalArgumentException("Sequence " + contig + " not found in reference FASTA file");
+        }
+        checkEndInsideContig(contig, end, sequenceDictionary.getSequence(contig).getSequenceLength());
+    }
+
+    protected static void checkStartAndEnd(long start, long end) throws IllegalArgumentException {
         if (end < start) {
             throw new IllegalArgumentException("'end' must be greater or equal than 'start'");
         } else if (start < 1) {
             throw new IllegalArgumentException("'start' and 'end' must be positive numbers");
-        } else if (!doesContigExist(contig)) {
-            throw new IllegalArgumentException("Sequence " + contig + " not found in reference FASTA file");
-        } else {
-            int sequenceLengthInFastaFile = sequenceDictionary.getSequence(contig).getSequenceLength();
-            if (end > sequenceLengthInFastaFile) {
-                throw new PositionOutsideOfContigException(
-                        "Variant coordinate " + end + " greater than end of chromosome " + contig + ": " +
-                                sequenceLengthInFastaFile);
-            }
+        }
+    }
+
+    protected static void checkEndInsideContig(String contig, long end, long sequenceLengthInFastaFile)
+            throws PositionOutsideOfContigException {
+        if (end > sequenceLengthInFastaFile) {
+            throw new PositionOutsideOfContigException(
+                    "Variant coordinate " + end + " greater than end of chromosome " + contig + ": " +
+                            sequenceLengthInFastaFile);
         }
     }
 
@@ -153,33 +331,150 @@ public class FastaSequenceReader {
     public ImmutableTriple<Long, String, String> getContextNucleotideAndNewStart(String contig, long oldStart,
                                                                                  String oldReference,
                                                                                  String oldAlternate) {
-        String newReference;
-        String newAlternate;
-
-        long newStart = oldStart;
         String contextBase = "";
-        // VCF 4.2 section 1.4.1.4. REF: "the REF and ALT Strings must include the base before the event unless the
-        // event occurs at position 1 on the contig in which case it must include the base after the event"
+        long contextPosition = getContextNucleotidePosition(oldStart, oldReference, oldAlternate);
+        if (contextPosition != NO_CONTEXT_NUCLEOTIDE) {
+            contextBase = getSequence(contig, contextPosition, contextPosition);
+        }
+        return addContextNucleotide(oldStart, oldReference, oldAlternate, contextBase);
+    }
+
+    /**
+     * Same as {@link #getContextNucleotideAndNewStart(String, long, String, String)} for a chunk of variants, but the
+     * context bases are retrieved with {@link #getBases(List)}, in order of position instead of one by one.
+     *
+     * @return The new start, reference and alternate of each variant, in the same order as the variants
+     */
+    public List<ImmutableTriple<Long, String, String>> getContextNucleotidesAndNewStarts(
+            List<? extends ISubmittedVariant> variants) {
+        List<ImmutablePair<String, Long>> contextPositions = new ArrayList<>(variants.size());
+        for (ISubmittedVariant variant : variants) {
+            contextPositions.add(new ImmutablePair<>(variant.getContig(), getContextNucleotidePosition(
+                    variant.getStart(), variant.getReferenceAllele(), variant.getAlternateAllele())));
+        }
+        List<String> contextBases = getBases(contextPositions);
+
+        List<ImmutableTriple<Long, String, String>> startsAndReferencesAndAlternates = new ArrayList<>(
+                variants.size());
+        for (int i = 0; i < variants.size(); i++) {
+            ISubmittedVariant variant = variants.get(i);
+            startsAndReferencesAndAlternates.add(addContextNucleotide(variant.getStart(),
+                                                                      variant.getReferenceAllele(),
+                                                                      variant.getAlternateAllele(),
+                                                                      contextBases.get(i)));
+        }
+        return startsAndReferencesAndAlternates;
+    }
+
+    /**
+     * Position of the base that has to be added to the alleles of a variant, or {@link #NO_CONTEXT_NUCLEOTIDE} if
+     * there is none.
+     *
+     * VCF 4.2 section 1.4.1.4. REF: "the REF and ALT Strings must include the base before the event unless the event
+     * occurs at position 1 on the contig in which case it must include the base after the event"
+     */
+    private static long getContextNucleotidePosition(long oldStart, String oldReference, String oldAlternate) {
         if (oldStart == 1) {
             if (oldReference.isEmpty()) {
-                contextBase = getSequence(contig, newStart, newStart);
+                return oldStart;
             } else if (oldAlternate.isEmpty()) {
-                contextBase = getSequence(contig, newStart + oldReference.length(), newStart + oldReference.length());
+                return oldStart + oldReference.length();
+            } else {
+                return NO_CONTEXT_NUCLEOTIDE;
             }
-            newReference = oldReference + contextBase;
-            newAlternate = oldAlternate + contextBase;
         } else {
-            newStart -= 1;
-            contextBase = getSequence(contig, newStart, newStart);
-            newReference = contextBase + oldReference;
-            newAlternate = contextBase + oldAlternate;
+            return oldStart - 1;
         }
+    }
 
+    private static ImmutableTriple<Long, String, String> addContextNucleotide(long oldStart, String oldReference,
+                                                                              String oldAlternate,
+                                                                              String contextBase) {
         if (contextBase.isEmpty()) {
             throw new IllegalStateException("fastaSequenceReader should have returned a non-empty sequence");
         }
+        if (oldStart == 1) {
+            return new ImmutableTriple<>(oldStart, oldReference + contextBase, oldAlternate + contextBase);
+        } else {
+            return new ImmutableTriple<>(oldStart - 1, contextBase + oldReference, contextBase + oldAlternate);
+        }
+    }
+
+    /**
+     * Gets the bases in several positions of the FASTA file, with as few reads as possible.
+     *
+     * The positions are sorted by contig and coordinate, and the positions of the same contig that are close to each
+     * other are retrieved with a single read of the region that contains them, so that the file is read forwards
+     * instead of at random. If a region can't be read, e.g. because one of the positions is outside of the contig,
+     * its positions are read one by one, so that the exception is the same as in {@link #getSequence}.
+     *
+     * @param contigsAndPositions Contig and 1-based coordinate of every base. For a position 0 no base is read, and an
+     * empty string is returned instead
+     * @return The base at every position, in the same order as the positions
+     */
+    public List<String> getBases(List<ImmutablePair<String, Long>> contigsAndPositions) {
+        String[] bases = new String[contigsAndPositions.size()];
+        List<Integer> sortedIndexes = new ArrayList<>(contigsAndPositions.size());
+        for (int i = 0; i < bases.length; i++) {
+            if (contigsAndPositions.get(i).getRight() == NO_CONTEXT_NUCLEOTIDE) {
+                bases[i] = "";
+            } else {
+                sortedIndexes.add(i);
+            }
+        }
+        sortedIndexes.sort(Comparator.comparing((Integer i) -> contigsAndPositions.get(i).getLeft())
+                                     .thenComparing(i -> contigsAndPositions.get(i).getRight()));
 
-        return new ImmutableTriple<>(newStart, newReference, newAlternate);
+        int regionFirstIndex = 0;
+        while (regionFirstIndex < sortedIndexes.size()) {
+            String contig = contigsAndPositions.get(sortedIndexes.get(regionFirstIndex)).getLeft();
+            long regionStart = contigsAndPositions.get(sortedIndexes.get(regionFirstIndex)).getRight();
+            int regionEndIndex = regionFirstIndex + 1;
+            while (regionEndIndex < sortedIndexes.size()
+                    && contig.equals(contigsAndPositions.get(sortedIndexes.get(regionEndIndex)).getLeft())
+                    && contigsAndPositions.get(sortedIndexes.get(regionEndIndex)).getRight()
+                    < regionStart + MAX_REGION_LENGTH) {
+                regionEndIndex++;
+            }
+            List<Integer> regionIndexes = sortedIndexes.subList(regionFirstIndex, regionEndIndex);
+            fillRegionBases(contig, regionStart, contigsAndPositions, regionIndexes, bases);
+            regionFirstIndex = regionEndIndex;
+        }
+        return Arrays.asList(bases);
+    }
+
+    private void fillRegionBases(String contig, long regionStart,
+                                 List<ImmutablePair<String, Long>> contigsAndPositions, List<Integer> regionIndexes,
+                                 String[] bases) {
+        long regionEnd = contigsAndPositions.get(regionIndexes.get(regionIndexes.size() - 1)).getRight();
+        String region;
+        try {
+            region = getSequence(contig, regionStart, regionEnd);
+        } catch (IllegalArgumentException regionUnavailable) {
+            for (int index : regionIndexes) {
+                long position = contigsAndPositions.get(index).getRight();
+                bases[index] = getSequence(contig, position, position);
+            }
+            return;
+        }
+        for (int index : regionIndexes) {
+            int offset = (int) (contigsAndPositions.get(index).getRight() - regionStart);
+            bases[index] = region.substring(offset, offset + 1);
+        }
+    }
+
+    /**
+     * @return Number of single bases served from the window without reading the FASTA file
+     */
+    public long getWindowHits() {
+        return windowHits.get();
+    }
+
+    /**
+     * @return Number of single bases that required reading a new window from the FASTA file
+     */
+    public long getWindowMisses() {
+        return windowMisses.get();
     }
 
     /**
@@ -187,6 +482,46 @@ public class FastaSequenceReader {
      * @throws Exception If the file cannot be closed
      */
     public void close() throws Exception {
-        fastaSequenceFile.close();
+        if (windowLength > 0) {
+            logger.debug("Single bases read from the FASTA window: {} hits, {} misses", windowHits.get(),
+                         windowMisses.get());
+        }
+        synchronized (idleSequenceWindows) {
+            idleSequenceWindows.clear();
+        }
+        if (fastaSequenceFile != null) {
+            fastaSequenceFile.close();
+        }
+        if (fastaSequenceFilePool != null) {
+            fastaSequenceFilePool.close();
+        }
+        if (randomAccessFastaFile != null) {
+            randomAccessFastaFile.close();
+        }
+    }
+
+    /**
+     * Consecutive bases of a contig, read at once from the FASTA file.
+     */
+    private static class SequenceWindow {
+
+        /** 1-based coordinate of the first base */
+        private final long start;
+
+        private final String bases;
+
+        SequenceWindow(long start, String bases) {
+            this.start = start;
+            this.bases = bases;
+        }
+
+        boolean contains(long position) {
+            return position >= start && position < start + bases.length();
+        }
+
+        String getBase(long position) {
+            int offset = (int) (position - start);
+            return bases.substring(offset, offset + 1);
+        }
     }
 }
@@ -15,43 +15,83 @@
  */
 package uk.ac.ebi.eva.accession.core.batch.io;
 
+import htsjdk.samtools.SAMSequenceRecord;
+
 import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
 import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Reads sequences from a FASTA file using any of the synonyms of the contigs, as long as the GenBank and RefSeq
+ * sequences are identical according to the assembly report.
+ *
+ * Every contig is resolved only once to the name and length of its sequence in the FASTA file, so the following reads
+ * of the same contig don't need to look up its synonyms, and the coordinates are checked against the stored length.
+ */
 public class FastaSynonymSequenceReader extends FastaSequenceReader {
 
     private ContigMapping contigMapping;
 
+    /** Sequence in the FASTA file of every contig requested so far */
+    private final Map<String, FastaContig> fastaContigs;
+
     public FastaSynonymSequenceReader(ContigMapping contigMapping, Path fastaPath) throws IOException {
-        super(fastaPath);
+        this(contigMapping, fastaPath, false);
+    }
+
+    public FastaSynonymSequenceReader(ContigMapping contigMapping, Path fastaPath, boolean memoryMapped)
+            throws IOException {
+        this(contigMapping, fastaPath, memoryMapped, 0);
+    }
+
+    /**
+     * @see FastaSequenceReader#FastaSequenceReader(Path, boolean, int)
+     */
+    public FastaSynonymSequenceReader(ContigMapping contigMapping, Path fastaPath, boolean memoryMapped,
+                                      int windowLength) throws IOException {
+        super(fastaPath, memoryMapped, windowLength);
         this.contigMapping = contigMapping;
+        this.fastaContigs = new ConcurrentHashMap<>();
     }
 
     @Override
     public boolean doesContigExist(String contig) {
-        ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contig);
+        return getFastaContig(contig).isPresent();
+    }
 
-        if (contigSynonyms == null) {
-            throw new IllegalArgumentException(
-                    "Contig '" + contig + "' not found in the assembly report");
+    /**
+     * Get the sequence delimited by the given coordinates from a FASTA file, where the contig may appear with any of
+     * its synonyms.
+     *
+     * @throws IllegalArgumentException If the contig is not in the assembly report or in the FASTA file, or if the
+     * coordinates are not correct
+     */
+    @Override
+    public String getSequence(String contig, long start, long end) {
+        FastaContig fastaContig = getFastaContig(contig);
+        if (!fastaContig.isPresent()) {
+            throw new IllegalArgumentException("Contig " + fastaContig.description + " not found in the FASTA file");
         }
+        checkStartAndEnd(start, end);
+        checkEndInsideContig(fastaContig.name, end, fastaContig.length);
+        return readSequence(fastaContig.name, start, end);
+    }
 
-        if (contigSynonyms.isIdenticalGenBankAndRefSeq()){
-            return super.doesContigExist(contigSynonyms.getSequenceName())
-                    || super.doesContigExist(contigSynonyms.getGenBank())
-                    || super.doesContigExist(contigSynonyms.getRefSeq())
-                    || super.doesContigExist(contigSynonyms.getUcsc())
-                    || super.doesContigExist(contigSynonyms.getAssignedMolecule());
-        } else {
-            return super.doesContigExist(contig);
-        }
+    private FastaContig getFastaContig(String contig) {
+        return fastaContigs.computeIfAbsent(contig, this::resolveFastaContig);
     }
 
-    @Override
-    public String getSequence(String contig, long start, long end) {
+    /**
+     * Finds the name used in the FASTA file for a contig. If the GenBank and RefSeq sequences are identical, any
+     * synonym can be used, and they are tried in order: sequence name, GenBank, RefSeq, UCSC and assigned molecule.
+     * Otherwise, only the given name can be used.
+     */
+    private FastaContig resolveFastaContig(String contig) {
         ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contig);
 
         if (contigSynonyms == null) {
@@ -60,72 +100,46 @@ public class FastaSynonymSequenceReader extends FastaSequenceReader {
         }
 
         if (contigSynonyms.isIdenticalGenBankAndRefSeq()) {
-            return getSequenceUsingSynonyms(contigSynonyms, start, end);
+            for (String synonym : Arrays.asList(contigSynonyms.getSequenceName(), contigSynonyms.getGenBank(),
+                                                contigSynonyms.getRefSeq(), contigSynonyms.getUcsc(),
+                                                contigSynonyms.getAssignedMolecule())) {
+                SAMSequenceRecord sequenceRecord = getSequenceRecord(synonym);
+                if (sequenceRecord != null) {
+                    return new FastaContig(synonym, sequenceRecord.getSequenceLength(), null);
+                }
+            }
+            return new FastaContig(null, 0, contigSynonyms.toString());
         } else {
-            String sequence = getSequenceIgnoringMissingContig(contig, start, end);
-            if (sequence == null) {
-                throw new IllegalArgumentException("Contig " + contig + " not found in the FASTA file");
-            } else {
-                return sequence;
+            SAMSequenceRecord sequenceRecord = getSequenceRecord(contig);
+            if (sequenceRecord != null) {
+                return new FastaContig(contig, sequenceRecord.getSequenceLength(), null);
             }
-
+            return new FastaContig(null, 0, contig);
         }
     }
 
-    private String getSequenceUsingSynonyms(ContigSynonyms contigSynonyms, long start, long end) {
-        String sequence;
-        if ((sequence = getSequenceIgnoringMissingContig(contigSynonyms.getSequenceName(), start, end)) != null) {
-            return sequence;
-        }
-        if ((sequence = getSequenceIgnoringMissingContig(contigSynonyms.getGenBank(), start, end)) != null) {
-            return sequence;
-        }
-        if ((sequence = getSequenceIgnoringMissingContig(contigSynonyms.getRefSeq(), start, end)) != null) {
-            return sequence;
-        }
-        if ((sequence = getSequenceIgnoringMissingContig(contigSynonyms.getUcsc(), start, end)) != null) {
-            return sequence;
-        }
-        if ((sequence = getSequenceIgnoringMissingContig(contigSynonyms.getAssignedMolecule(), start, end)) != null) {
-            return sequence;
-        }
-        throw new IllegalArgumentException("Contig " + contigSynonyms.toString() + " not found in the FASTA file");
+    private SAMSequenceRecord getSequenceRecord(String contig) {
+        return contig == null ? null : sequenceDictionary.getSequence(contig);
     }
 
-    /**
-     * Tries to retrieve a sequence from a FASTA file. If the sequence can't be found using that name, it could be that
-     * the FASTA uses a different nomenclature; in that case a synonym could be used.
-     *
-     * But if the sequence can be found and the coordinates are not valid, the error is unrecoverable and an exception
-     * is thrown.
-     *
-     * @param contig Name of the sequence to be retrieved
-     * @param start Start coordinate of the sequence to be retrieved
-     * @param end End coordinate of the sequence to be retrieved
-     * @return The sequence or null if not found
-     * @throws IllegalArgumentException if the sequence name can be found in the FASTA but the coordinates are too large
-     */
-    private String getSequenceIgnoringMissingContig(String contig, long start, long end) {
-        if (contig != null && sequenceDictionary.getSequence(contig) != null) {
-            try {
-                return super.getSequence(contig, start, end);
-            } catch (IllegalArgumentException sequenceUnavailable) {
-                /*
-                The same exception type could be caused because the contig was not found, or the requested coordinates
-                were greater than the last position in the contig. In order to differentiate between them, we make
-                another request for position 1 of the sequence.
-                */
-                try {
-                    super.getSequence(contig, 1, 1);
-                } catch (IllegalArgumentException contigMissing) {
-                    return null;
-                }
+    private static class FastaContig {
 
-                // The exception is only thrown when the sequence name was found but the coordinates are not valid.
-                throw sequenceUnavailable;
-            }
-        } else {
-            return null;
+        /** Name of the sequence in the FASTA file, or null if the contig is not in the FASTA file */
+        private final String name;
+
+        private final long length;
+
+        /** Description of the contig for error messages when it's not in the FASTA file */
+        private final String description;
+
+        FastaContig(String name, long length, String description) {
+            this.name = name;
+            this.length = length;
+            this.description = description;
+        }
+
+        boolean isPresent() {
+            return name != null;
         }
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads bases of an uncompressed FASTA file that is mapped in memory, using the offsets of its ".fai" index.
+ *
+ * The position of every base in the file is computed from the index, so the line breaks are skipped without searching
+ * for them, and the bases are copied directly from the mapped file without intermediate objects. The case of the
+ * bases is kept, so soft-masked regions are returned in lowercase, like in the FASTA file.
+ *
+ * The file is only read with absolute positions, so an instance can be used by several threads at the same time.
+ */
+public class MappedFastaSequenceFile implements RandomAccessFastaFile {
+
+    /** Files larger than 2GB can't be mapped in a single buffer, so they are mapped in segments of this size */
+    private static final int SEGMENT_BITS = 30;
+
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final FastaIndex index;
+
+    private MappedByteBuffer[] segments;
+
+    public MappedFastaSequenceFile(Path fastaPath) throws IOException {
+        this(fastaPath, FastaIndex.getIndexPath(fastaPath));
+    }
+
+    public MappedFastaSequenceFile(Path fastaPath, Path indexPath) throws IOException {
+        index = FastaIndex.read(indexPath);
+        try (FileChannel channel = FileChannel.open(fastaPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long segmentStart = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart,
+                                          Math.min(size - segmentStart, SEGMENT_MASK + 1));
+            }
+        }
+    }
+
+    public boolean hasSequence(String contig) {
+        return index.getEntry(contig) != null;
+    }
+
+    /**
+     * @return Number of bases of the sequence, or -1 if it's not in the index
+     */
+    public long getSequenceLength(String contig) {
+        FastaIndex.Entry entry = index.getEntry(contig);
+        return entry == null ? -1 : entry.getLength();
+    }
+
+    /**
+     * @param contig Sequence name, as in the FASTA index
+     * @param position Base coordinate in the contig, 1-based
+     * @return Base read from the FASTA file, in the same case
+     * @throws IllegalArgumentException If the contig is not in the index or the position is outside of it
+     */
+    public byte getBase(String contig, long position) {
+        FastaIndex.Entry entry = index.getEntry(contig, position, position);
+        return byteAt(entry.getOffset(position - 1));
+    }
+
+    /**
+     * @param contig Sequence name, as in the FASTA index
+     * @param start Sequence start coordinate in the contig, inclusive, 1-based
+     * @param end Sequence end coordinate in the contig, inclusive, 1-based
+     * @return Sequence read from the FASTA file, in the same case
+     * @throws IllegalArgumentException If the contig is not in the index or the coordinates are outside of it
+     */
+    @Override
+    public String getSubsequence(String contig, long start, long end) {
+        FastaIndex.Entry entry = index.getEntry(contig, start, end);
+        byte[] bases = new byte[(int) (end - start + 1)];
+        long position = start - 1;
+        int copied = 0;
+        while (copied < bases.length) {
+            // copy the rest of the line, or the rest of the sequence if it ends in the same line
+            long offset = entry.getOffset(position);
+            int count = Math.min(entry.getRemainingLineBases(position), bases.length - copied);
+            for (int i = 0; i < count; i++) {
+                bases[copied + i] = byteAt(offset + i);
+            }
+            copied += count;
+            position += count;
+        }
+        return new String(bases, StandardCharsets.US_ASCII);
+    }
+
+    private byte byteAt(long offset) {
+        return segments[(int) (offset >>> SEGMENT_BITS)].get((int) (offset & SEGMENT_MASK));
+    }
+
+    /**
+     * The mapped segments are released when they are garbage collected, so this only drops the references to them.
+     */
+    @Override
+    public void close() {
+        segments = new MappedByteBuffer[0];
+    }
+}
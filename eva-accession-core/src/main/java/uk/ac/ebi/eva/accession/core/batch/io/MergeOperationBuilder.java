@@ -4,13 +4,16 @@ import com.mongodb.MongoBulkWriteException;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.EventType;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.document.AccessionedDocument;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.document.EventDocument;
-import uk.ac.ebi.ampt2d.commons.accession.persistence.repositories.IAccessionedObjectRepository;
-import uk.ac.ebi.ampt2d.commons.accession.persistence.repositories.IHistoryRepository;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -18,45 +21,133 @@ import java.util.stream.Stream;
 
 import static uk.ac.ebi.eva.accession.core.exceptions.MongoBulkWriteExceptionUtils.extractUniqueHashesForDuplicateKeyError;
 
+/**
+ * Builds the merge operations needed when a bulk insert fails because some variants have the same hash as a document
+ * already in the database: each variant with a duplicated hash and a different accession is merged into the existing
+ * document, unless that merge was already recorded.
+ *
+ * All the existing documents are retrieved with a single query, and so are the operations of the candidate variants,
+ * so the number of database round trips does not depend on the number of duplicates in the chunk. Duplicates within
+ * the chunk itself can be resolved before inserting, see {@link #removeDuplicatedHashes(List)}.
+ */
 public class MergeOperationBuilder<ENTITY extends AccessionedDocument<?, Long>,
         OPERATION_ENTITY extends EventDocument<?, Long, ?>> {
 
-    private IHistoryRepository<Long, OPERATION_ENTITY, String> operationRepository;
+    private Function<List<Long>, List<OPERATION_ENTITY>> findAllOperationsByAccessionIn;
 
-    private Function<String, Optional<ENTITY>> findOneVariantEntityById;
+    private Function<List<String>, List<ENTITY>> findAllVariantEntitiesByHashIn;
 
     private BiFunction<ENTITY, ENTITY, OPERATION_ENTITY> mergeOperationFactory;
 
-    public MergeOperationBuilder(IHistoryRepository<Long, OPERATION_ENTITY, String> operationRepository,
-                                 IAccessionedObjectRepository<ENTITY, Long> variantRepository,
+    public MergeOperationBuilder(Function<List<Long>, List<OPERATION_ENTITY>> findAllOperationsByAccessionIn,
+                                 Function<List<String>, List<ENTITY>> findAllVariantEntitiesByHashIn,
                                  BiFunction<ENTITY, ENTITY, OPERATION_ENTITY> mergeOperationFactory) {
-        this(operationRepository, variantRepository::findById, mergeOperationFactory);
+        this.findAllOperationsByAccessionIn = findAllOperationsByAccessionIn;
+        this.findAllVariantEntitiesByHashIn = findAllVariantEntitiesByHashIn;
+        this.mergeOperationFactory = mergeOperationFactory;
     }
 
-    public MergeOperationBuilder(IHistoryRepository<Long, OPERATION_ENTITY, String> operationRepository,
-                          Function<String, Optional<ENTITY>> findOneVariantEntityById,
-                          BiFunction<ENTITY, ENTITY, OPERATION_ENTITY> mergeOperationFactory) {
-        this.operationRepository = operationRepository;
-        this.findOneVariantEntityById = findOneVariantEntityById;
-        this.mergeOperationFactory = mergeOperationFactory;
+    /**
+     * Keeps only the first variant of each hash, so that a bulk insert doesn't fail because of duplicates within the
+     * same chunk. See {@link #buildMergeOperationsForDuplicatedHashes(List)} for the variants that are left out.
+     */
+    public List<ENTITY> removeDuplicatedHashes(List<ENTITY> variants) {
+        checkForNulls(variants);
+        Map<String, ENTITY> firstVariantByHash = new LinkedHashMap<>();
+        for (ENTITY variant : variants) {
+            firstVariantByHash.putIfAbsent(variant.getHashedMessage(), variant);
+        }
+        return new ArrayList<>(firstVariantByHash.values());
+    }
+
+    /**
+     * Merges every variant into the first variant in the list with the same hash, unless both have the same accession.
+     * This resolves the duplicates within a chunk without querying the database.
+     */
+    public List<OPERATION_ENTITY> buildMergeOperationsForDuplicatedHashes(List<ENTITY> variants) {
+        checkForNulls(variants);
+        Map<String, ENTITY> firstVariantByHash = new HashMap<>();
+        Set<String> mergedHashesAndAccessions = new HashSet<>();
+        List<OPERATION_ENTITY> operations = new ArrayList<>();
+        for (ENTITY variant : variants) {
+            ENTITY mergedInto = firstVariantByHash.putIfAbsent(variant.getHashedMessage(), variant);
+            if (mergedInto != null
+                    && !variant.getAccession().equals(mergedInto.getAccession())
+                    && mergedHashesAndAccessions.add(variant.getHashedMessage() + variant.getAccession())) {
+                operations.add(mergeOperationFactory.apply(variant, mergedInto));
+            }
+        }
+        return operations;
     }
 
     public List<OPERATION_ENTITY> buildMergeOperationsFromException(List<ENTITY> variants,
                                                                     MongoBulkWriteException exception) {
-        List<OPERATION_ENTITY> operations = new ArrayList<>();
         checkForNulls(variants);
-        extractUniqueHashesForDuplicateKeyError(exception)
-                .forEach(hash -> {
-                    Optional<ENTITY> mergedInto = findOneVariantEntityById.apply(hash);
-                    if (!mergedInto.isPresent()) {
-                        throwMongoConsistencyException(variants, hash);
-                    }
-                    List<OPERATION_ENTITY> merges = buildMergeOperations(variants,
-                                                                         hash,
-                                                                         mergedInto.get());
-
-                    operations.addAll(merges);
-                });
+        List<String> duplicatedHashes = extractUniqueHashesForDuplicateKeyError(exception).collect(
+                Collectors.toList());
+        return buildMergeOperations(variants, duplicatedHashes);
+    }
+
+    /**
+     * Like {@link #buildMergeOperationsFromException(List, MongoBulkWriteException)}, for a bulk insert of the
+     * variants returned by {@link #removeDuplicatedHashes(List)}.
+     *
+     * @param variants all the variants in the chunk, including the ones with duplicated hashes
+     * @param mergeOperationsForDuplicatedHashes the result of {@link #buildMergeOperationsForDuplicatedHashes(List)}.
+     * The ones about a hash that was already in the database are replaced by merges into the existing document.
+     */
+    public List<OPERATION_ENTITY> buildMergeOperationsFromException(
+            List<ENTITY> variants, List<OPERATION_ENTITY> mergeOperationsForDuplicatedHashes,
+            MongoBulkWriteException exception) {
+        checkForNulls(variants);
+        List<String> duplicatedHashes = extractUniqueHashesForDuplicateKeyError(exception).collect(
+                Collectors.toList());
+        Set<String> persistedHashes = new HashSet<>(duplicatedHashes);
+        List<OPERATION_ENTITY> operations = mergeOperationsForDuplicatedHashes
+                .stream()
+                .filter(operation -> !persistedHashes.contains(
+                        operation.getInactiveObjects().get(0).getHashedMessage()))
+                .collect(Collectors.toList());
+        operations.addAll(buildMergeOperations(variants, duplicatedHashes));
+        return operations;
+    }
+
+    private List<OPERATION_ENTITY> buildMergeOperations(List<ENTITY> variants, List<String> duplicatedHashes) {
+        if (duplicatedHashes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, ENTITY> mergedIntoByHash = findAllVariantEntitiesByHashIn
+                .apply(duplicatedHashes)
+                .stream()
+                .collect(Collectors.toMap(ENTITY::getHashedMessage, v -> v, (a, b) -> a));
+        for (String hash : duplicatedHashes) {
+            if (!mergedIntoByHash.containsKey(hash)) {
+                throwMongoConsistencyException(variants, hash);
+            }
+        }
+
+        Collection<ENTITY> entities = removeDuplicatesWithSameHashAndAccession(variants.stream());
+        checkForNulls(entities);
+        Map<String, List<ENTITY>> candidatesByHash = entities
+                .stream()
+                .filter(v -> mergedIntoByHash.containsKey(v.getHashedMessage())
+                        && !v.getAccession().equals(mergedIntoByHash.get(v.getHashedMessage()).getAccession()))
+                .collect(Collectors.groupingBy(ENTITY::getHashedMessage));
+        if (candidatesByHash.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, List<OPERATION_ENTITY>> operationsByAccession = getOperationsByAccession(candidatesByHash);
+        List<OPERATION_ENTITY> operations = new ArrayList<>();
+        for (String hash : duplicatedHashes) {
+            ENTITY mergedInto = mergedIntoByHash.get(hash);
+            candidatesByHash.getOrDefault(hash, Collections.emptyList())
+                            .stream()
+                            .filter(v -> !isAlreadyMergedInto(v, mergedInto, operationsByAccession))
+                            .map(origin -> mergeOperationFactory.apply(origin, mergedInto))
+                            .forEach(operations::add);
+        }
         return operations;
     }
 
@@ -74,16 +165,16 @@ public class MergeOperationBuilder<ENTITY extends AccessionedDocument<?, Long>,
                         printedVariants);
     }
 
-    private List<OPERATION_ENTITY> buildMergeOperations(List<ENTITY> variants, String hash, ENTITY mergedInto) {
-        Collection<ENTITY> entities = removeDuplicatesWithSameHashAndAccession(variants.stream());
-        checkForNulls(entities);
-        return entities
-                .stream()
-                .filter(v -> v.getHashedMessage().equals(hash)
-                        && !v.getAccession().equals(mergedInto.getAccession())
-                        && !isAlreadyMergedInto(v, mergedInto))
-                .map(origin -> mergeOperationFactory.apply(origin, mergedInto))
-                .collect(Collectors.toList());
+    private Map<Long, List<OPERATION_ENTITY>> getOperationsByAccession(Map<String, List<ENTITY>> candidatesByHash) {
+        List<Long> accessions = candidatesByHash.values()
+                                                .stream()
+                                                .flatMap(Collection::stream)
+                                                .map(ENTITY::getAccession)
+                                                .distinct()
+                                                .collect(Collectors.toList());
+        return findAllOperationsByAccessionIn.apply(accessions)
+                                             .stream()
+                                             .collect(Collectors.groupingBy(OPERATION_ENTITY::getAccession));
     }
 
     private void checkForNulls(Collection<ENTITY> entities) {
@@ -108,8 +199,10 @@ public class MergeOperationBuilder<ENTITY extends AccessionedDocument<?, Long>,
                                   .values();
     }
 
-    private boolean isAlreadyMergedInto(ENTITY original, ENTITY mergedInto) {
-        List<OPERATION_ENTITY> merges = operationRepository.findAllByAccession(original.getAccession());
+    private boolean isAlreadyMergedInto(ENTITY original, ENTITY mergedInto,
+                                        Map<Long, List<OPERATION_ENTITY>> operationsByAccession) {
+        List<OPERATION_ENTITY> merges = operationsByAccession.getOrDefault(original.getAccession(),
+                                                                           Collections.emptyList());
         return merges.stream().anyMatch(
                 operation ->
                         operation.getEventType().equals(EventType.MERGED)
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import java.io.IOException;
+
+/**
+ * FASTA file read by {@link FastaSequenceReader} without htsjdk, using the offsets of its ".fai" index. The
+ * implementations must be thread-safe.
+ */
+interface RandomAccessFastaFile {
+
+    /**
+     * @param contig Sequence name, as in the FASTA index
+     * @param start Sequence start coordinate in the contig, inclusive, 1-based
+     * @param end Sequence end coordinate in the contig, inclusive, 1-based
+     * @return Sequence read from the FASTA file, in the same case
+     * @throws IllegalArgumentException If the contig is not in the index or the coordinates are outside of it
+     */
+    String getSubsequence(String contig, long start, long end);
+
+    void close() throws IOException;
+}
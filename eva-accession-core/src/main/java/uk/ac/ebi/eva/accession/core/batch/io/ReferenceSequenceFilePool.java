@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.samtools.reference.ReferenceSequenceFileFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Lends handles of an indexed FASTA file to the threads that read it, because the htsjdk reference files are not
+ * thread-safe.
+ *
+ * A handle is borrowed for every read and returned right after it, so that steps with a multi-threaded task executor
+ * can read the FASTA file in parallel instead of waiting for a single shared handle. At most {@code maxHandles} are
+ * opened, no matter how many threads the executor creates (e.g. a SimpleAsyncTaskExecutor starts a new thread for
+ * every task); when all of them are in use, the next reader waits until one is returned. All of them are closed
+ * together by {@link #close()}.
+ */
+class ReferenceSequenceFilePool {
+
+    private final Path fastaPath;
+
+    private final int maxHandles;
+
+    private final Deque<ReferenceSequenceFile> idleFastaSequenceFiles;
+
+    private final List<ReferenceSequenceFile> openedFastaSequenceFiles;
+
+    private boolean closed;
+
+    ReferenceSequenceFilePool(Path fastaPath, int maxHandles) {
+        if (maxHandles < 1) {
+            throw new IllegalArgumentException("The maximum number of FASTA handles must be 1 or greater, but was "
+                                                       + maxHandles);
+        }
+        this.fastaPath = fastaPath;
+        this.maxHandles = maxHandles;
+        this.idleFastaSequenceFiles = new ArrayDeque<>();
+        this.openedFastaSequenceFiles = new ArrayList<>();
+        this.closed = false;
+    }
+
+    /**
+     * @see ReferenceSequenceFile#getSubsequenceAt(String, long, long)
+     */
+    String getSubsequenceAt(String contig, long start, long end) {
+        ReferenceSequenceFile fastaSequenceFile = borrow();
+        try {
+            return fastaSequenceFile.getSubsequenceAt(contig, start, end).getBaseString();
+        } finally {
+            giveBack(fastaSequenceFile);
+        }
+    }
+
+    private synchronized ReferenceSequenceFile borrow() {
+        while (true) {
+            if (closed) {
+                throw new IllegalStateException("The FASTA file " + fastaPath + " is already closed");
+            }
+            if (!idleFastaSequenceFiles.isEmpty()) {
+                return idleFastaSequenceFiles.pop();
+            }
+            if (openedFastaSequenceFiles.size() < maxHandles) {
+                ReferenceSequenceFile fastaSequenceFile = ReferenceSequenceFileFactory.getReferenceSequenceFile(
+                        fastaPath, true);
+                openedFastaSequenceFiles.add(fastaSequenceFile);
+                return fastaSequenceFile;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a handle of the FASTA file " + fastaPath,
+                                                e);
+            }
+        }
+    }
+
+    private synchronized void giveBack(ReferenceSequenceFile fastaSequenceFile) {
+        if (!closed) {
+            idleFastaSequenceFiles.push(fastaSequenceFile);
+            notify();
+        }
+    }
+
+    synchronized int getNumberOfOpenedHandles() {
+        return openedFastaSequenceFiles.size();
+    }
+
+    synchronized void close() throws IOException {
+        closed = true;
+        notifyAll();
+        for (ReferenceSequenceFile fastaSequenceFile : openedFastaSequenceFiles) {
+            fastaSequenceFile.close();
+        }
+        openedFastaSequenceFiles.clear();
+        idleFastaSequenceFiles.clear();
+    }
+}
@@ -23,6 +23,12 @@ public class VariantAccessioningProperties {
 
     private long blockSize;
 
+    /**
+     * Fraction of the current block that has to be used before the next one is reserved in the background. With 0,
+     * blocks are only reserved when the current one runs out.
+     */
+    private double blockPrefetchThreshold;
+
     public String getCategoryId() {
         return categoryId;
     }
@@ -31,6 +37,10 @@ public class VariantAccessioningProperties {
         return blockSize;
     }
 
+    public double getBlockPrefetchThreshold() {
+        return blockPrefetchThreshold;
+    }
+
     public void setCategoryId(String categoryId) {
         this.categoryId = categoryId;
     }
@@ -39,11 +49,16 @@ public class VariantAccessioningProperties {
         this.blockSize = blockSize;
     }
 
+    public void setBlockPrefetchThreshold(double blockPrefetchThreshold) {
+        this.blockPrefetchThreshold = blockPrefetchThreshold;
+    }
+
     @Override
     public String toString() {
         return "VariantAccessioningProperties{" +
                 "categoryId='" + categoryId + '\'' +
                 ", blockSize=" + blockSize +
+                ", blockPrefetchThreshold=" + blockPrefetchThreshold +
                 '}';
     }
 }
@@ -26,12 +26,13 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import uk.ac.ebi.ampt2d.commons.accession.autoconfigure.EnableSpringDataContiguousIdService;
 import uk.ac.ebi.ampt2d.commons.accession.generators.monotonic.MonotonicAccessionGenerator;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.jpa.monotonic.service.ContiguousIdBlockService;
 
 import uk.ac.ebi.eva.accession.core.configuration.ApplicationProperties;
 import uk.ac.ebi.eva.accession.core.configuration.ApplicationPropertiesConfiguration;
+import uk.ac.ebi.eva.accession.core.configuration.VariantAccessioningProperties;
 import uk.ac.ebi.eva.accession.core.generators.DbsnpMonotonicAccessionGenerator;
+import uk.ac.ebi.eva.accession.core.generators.PrefetchingContiguousIdBlockService;
 import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantInactiveEntity;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantOperationEntity;
@@ -48,9 +49,11 @@ import uk.ac.ebi.eva.accession.core.service.nonhuman.eva.ClusteredVariantAccessi
 import uk.ac.ebi.eva.accession.core.service.nonhuman.eva.ClusteredVariantInactiveService;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.eva.ClusteredVariantMonotonicAccessioningService;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.eva.SubmittedVariantMonotonicAccessioningService;
-import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
 import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
 
+import javax.annotation.PreDestroy;
+
 @Configuration
 @EnableSpringDataContiguousIdService
 @Import({ApplicationPropertiesConfiguration.class, MongoConfiguration.class})
@@ -84,6 +87,8 @@ public class ClusteredVariantAccessioningConfiguration {
     @Value("${accessioning.clustered.categoryId}")
     private String categoryId;
 
+    private PrefetchingContiguousIdBlockService prefetchingBlockService;
+
     @Bean
     public Long accessioningMonotonicInitRs() {
         return blockService.getBlockParameters(categoryId).getBlockStartValue();
@@ -93,8 +98,7 @@ public class ClusteredVariantAccessioningConfiguration {
     public ClusteredVariantMonotonicAccessioningService clusteredVariantMonotonicAccessioningService() {
         return new ClusteredVariantMonotonicAccessioningService(clusteredVariantAccessionGenerator(),
                                                                 clusteredVariantAccessioningDatabaseService(),
-                                                                new ClusteredVariantSummaryFunction(),
-                                                                new SHA1HashingFunction());
+                                                                new ClusteredVariantHashingFunction());
     }
 
     @Bean("nonhumanActiveService")
@@ -110,10 +114,26 @@ public class ClusteredVariantAccessioningConfiguration {
         return new MonotonicAccessionGenerator<>(
                 properties.getClustered().getCategoryId(),
                 properties.getInstanceId(),
-                blockService,
+                generatorBlockService(properties.getClustered()),
                 clusteredVariantAccessioningDatabaseService());
     }
 
+    private ContiguousIdBlockService generatorBlockService(VariantAccessioningProperties properties) {
+        if (properties.getBlockPrefetchThreshold() <= 0) {
+            return blockService;
+        }
+        prefetchingBlockService = new PrefetchingContiguousIdBlockService(blockService,
+                                                                          properties.getBlockPrefetchThreshold());
+        return prefetchingBlockService;
+    }
+
+    @PreDestroy
+    public void shutdownBlockReservation() {
+        if (prefetchingBlockService != null) {
+            prefetchingBlockService.shutdown();
+        }
+    }
+
     @Bean
     public DbsnpMonotonicAccessionGenerator<IClusteredVariant> dbsnpClusteredVariantAccessionGenerator() {
         ApplicationProperties properties = applicationProperties;
@@ -24,17 +24,22 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import uk.ac.ebi.ampt2d.commons.accession.autoconfigure.EnableSpringDataContiguousIdService;
 import uk.ac.ebi.ampt2d.commons.accession.generators.monotonic.MonotonicAccessionGenerator;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.jpa.monotonic.service.ContiguousIdBlockService;
 
 import uk.ac.ebi.eva.accession.core.configuration.ApplicationProperties;
 import uk.ac.ebi.eva.accession.core.configuration.ApplicationPropertiesConfiguration;
+import uk.ac.ebi.eva.accession.core.configuration.VariantAccessioningProperties;
 import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantEntity;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.SubmittedVariantAccessioningService;
 import uk.ac.ebi.eva.accession.core.generators.DbsnpMonotonicAccessionGenerator;
+import uk.ac.ebi.eva.accession.core.generators.PrefetchingContiguousIdBlockService;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp.DbsnpSubmittedVariantAccessioningDatabaseService;
+import uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp.DbsnpSubmittedVariantHashFilter;
 import uk.ac.ebi.eva.accession.core.repository.nonhuman.dbsnp.DbsnpSubmittedVariantAccessioningRepository;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantInactiveEntity;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantOperationEntity;
@@ -48,7 +53,16 @@ import uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp.DbsnpSubmittedVariant
 import uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp.DbsnpSubmittedVariantMonotonicAccessioningService;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.eva.SubmittedVariantInactiveService;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.eva.SubmittedVariantMonotonicAccessioningService;
-import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @Configuration
 @EnableSpringDataContiguousIdService
@@ -57,6 +71,8 @@ public class SubmittedVariantAccessioningConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(SubmittedVariantAccessioningConfiguration.class);
 
+    private static final String REFERENCE_SEQUENCE_FIELD = "seq";
+
     @Autowired
     private SubmittedVariantAccessioningRepository repository;
 
@@ -81,33 +97,94 @@ public class SubmittedVariantAccessioningConfiguration {
     @Autowired
     private ApplicationProperties applicationProperties;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Value("${accessioning.submitted.categoryId}")
     private String categoryId;
 
+    /**
+     * Number of threads used to query the dbSNP collection while the EVA collection is queried. With 0 (the default),
+     * both are queried one after the other and no thread pool is created.
+     */
+    @Value("${accessioning.submitted.lookupThreads:0}")
+    private int lookupThreads;
+
+    /**
+     * Optional file with the filter of dbSNP submitted variant hashes of an assembly, built by the dbSNP import job.
+     * When empty, the dbSNP collection is always queried. A filter built from a different number of variants than the
+     * ones of its assembly currently in the dbSNP collection is refused, because it could rule out existing variants.
+     */
+    @Value("${accessioning.submitted.dbsnpHashFilter:}")
+    private String dbsnpHashFilterPath;
+
+    private ExecutorService lookupExecutor;
+
+    private PrefetchingContiguousIdBlockService prefetchingBlockService;
+
     @Bean
     public Long accessioningMonotonicInitSs() {
         return blockService.getBlockParameters(categoryId).getBlockStartValue();
     }
 
     @Bean
-    public SubmittedVariantAccessioningService submittedVariantAccessioningService() {
-        return new SubmittedVariantAccessioningService(submittedVariantMonotonicAccessioningService(),
-                                                       dbsnpSubmittedVariantMonotonicAccessioningService(),
-                                                       accessioningMonotonicInitSs());
+    public SubmittedVariantAccessioningService submittedVariantAccessioningService() throws IOException {
+        SubmittedVariantAccessioningService service;
+        if (lookupThreads <= 0) {
+            service = new SubmittedVariantAccessioningService(submittedVariantMonotonicAccessioningService(),
+                                                              dbsnpSubmittedVariantMonotonicAccessioningService(),
+                                                              accessioningMonotonicInitSs());
+        } else {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("submitted-variant-lookup-");
+            threadFactory.setDaemon(true);
+            lookupExecutor = Executors.newFixedThreadPool(lookupThreads, threadFactory);
+            service = new SubmittedVariantAccessioningService(submittedVariantMonotonicAccessioningService(),
+                                                              dbsnpSubmittedVariantMonotonicAccessioningService(),
+                                                              accessioningMonotonicInitSs(), lookupExecutor);
+        }
+        if (!dbsnpHashFilterPath.isEmpty()) {
+            service.setDbsnpHashFilter(readDbsnpHashFilter());
+        }
+        return service;
+    }
+
+    private DbsnpSubmittedVariantHashFilter readDbsnpHashFilter() throws IOException {
+        DbsnpSubmittedVariantHashFilter filter = DbsnpSubmittedVariantHashFilter.readFrom(
+                Paths.get(dbsnpHashFilterPath));
+        long dbsnpVariants = mongoTemplate.count(
+                query(where(REFERENCE_SEQUENCE_FIELD).is(filter.getAssemblyAccession())),
+                DbsnpSubmittedVariantEntity.class);
+        if (filter.getNumberOfHashes() != dbsnpVariants) {
+            throw new IllegalStateException(
+                    "The filter of dbSNP submitted variant hashes in " + dbsnpHashFilterPath + " was built from "
+                    + filter.getNumberOfHashes() + " variants of assembly " + filter.getAssemblyAccession()
+                    + ", but there are " + dbsnpVariants + " in the dbSNP collection. Please rebuild the filter");
+        }
+        logger.info("Using the filter of dbSNP submitted variant hashes of assembly {} in {}",
+                    filter.getAssemblyAccession(), dbsnpHashFilterPath);
+        return filter;
+    }
+
+    @PreDestroy
+    public void shutdownLookupExecutor() {
+        if (lookupExecutor != null) {
+            lookupExecutor.shutdown();
+        }
+        if (prefetchingBlockService != null) {
+            prefetchingBlockService.shutdown();
+        }
     }
 
     private SubmittedVariantMonotonicAccessioningService submittedVariantMonotonicAccessioningService() {
         return new SubmittedVariantMonotonicAccessioningService(submittedVariantAccessionGenerator(),
                                                                 submittedVariantAccessioningDatabaseService(),
-                                                                new SubmittedVariantSummaryFunction(),
-                                                                new SHA1HashingFunction());
+                                                                new SubmittedVariantHashingFunction());
     }
 
     private DbsnpSubmittedVariantMonotonicAccessioningService dbsnpSubmittedVariantMonotonicAccessioningService() {
         return new DbsnpSubmittedVariantMonotonicAccessioningService(dbsnpSubmittedVariantAccessionGenerator(),
                                                                      dbsnpSubmittedVariantAccessioningDatabaseService(),
-                                                                     new SubmittedVariantSummaryFunction(),
-                                                                     new SHA1HashingFunction());
+                                                                     new SubmittedVariantHashingFunction());
     }
 
     @Bean
@@ -117,10 +194,19 @@ public class SubmittedVariantAccessioningConfiguration {
         return new MonotonicAccessionGenerator<>(
                 properties.getSubmitted().getCategoryId(),
                 properties.getInstanceId(),
-                blockService,
+                generatorBlockService(properties.getSubmitted()),
                 submittedVariantAccessioningDatabaseService());
     }
 
+    private ContiguousIdBlockService generatorBlockService(VariantAccessioningProperties properties) {
+        if (properties.getBlockPrefetchThreshold() <= 0) {
+            return blockService;
+        }
+        prefetchingBlockService = new PrefetchingContiguousIdBlockService(blockService,
+                                                                          properties.getBlockPrefetchThreshold());
+        return prefetchingBlockService;
+    }
+
     @Bean
     public DbsnpMonotonicAccessionGenerator<ISubmittedVariant> dbsnpSubmittedVariantAccessionGenerator() {
         ApplicationProperties properties = applicationProperties;
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.contig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import uk.ac.ebi.eva.accession.core.batch.io.AssemblyReportReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the parsed rows of the assembly reports in a local directory, so that the jobs don't need to parse the same
+ * report again every time they start.
+ *
+ * Every report is stored in a binary file named after the hash of its URL, together with the MD5 checksum of the
+ * report contents. When the cache is online, the report is still read from its URL, but it's only parsed if its
+ * checksum is different from the cached one, in which case the cache is updated. When the cache is offline, the report
+ * is not read at all and the cached rows are used directly, so a report must have been cached by a previous online run.
+ * Note that assembly reports of a given accession and version are not expected to change.
+ *
+ * Without a cache directory, the reports are just read and parsed every time.
+ */
+public class AssemblyReportCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssemblyReportCache.class);
+
+    private static final int MAGIC_NUMBER = 0x45564152;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String CACHE_FILE_EXTENSION = ".bin";
+
+    private final Path cacheDirectory;
+
+    private final boolean offline;
+
+    /**
+     * @param cacheDirectory directory where the reports are stored, it will be created if it doesn't exist. If null,
+     * the reports are not cached
+     * @param offline if true, the reports are only taken from the cache and never read from their URL
+     */
+    public AssemblyReportCache(Path cacheDirectory, boolean offline) {
+        if (cacheDirectory == null && offline) {
+            throw new IllegalArgumentException("The offline mode of the assembly report cache needs a cache directory");
+        }
+        this.cacheDirectory = cacheDirectory;
+        this.offline = offline;
+    }
+
+    public ContigMapping getContigMapping(String assemblyReportUrl) throws Exception {
+        return new ContigMapping(getContigSynonyms(assemblyReportUrl));
+    }
+
+    /**
+     * Returns the rows of the assembly report, without normalizing the names that are not available.
+     */
+    public List<ContigSynonyms> getContigSynonyms(String assemblyReportUrl) throws Exception {
+        if (cacheDirectory == null) {
+            return parse(new AssemblyReportReader(assemblyReportUrl));
+        }
+        Path cacheFile = getCacheFile(assemblyReportUrl);
+        CachedReport cachedReport = Files.exists(cacheFile) ? readCacheFile(cacheFile, assemblyReportUrl) : null;
+        if (offline) {
+            if (cachedReport == null) {
+                throw new IllegalStateException(
+                        "Assembly report " + assemblyReportUrl + " is not available in the cache " + cacheDirectory
+                                + ", it has to be cached by running once without offline mode");
+            }
+            logger.info("Assembly report {} loaded from offline cache {}", assemblyReportUrl, cacheFile);
+            return cachedReport.contigSynonyms;
+        }
+
+        byte[] report = download(assemblyReportUrl);
+        String checksum = DigestUtils.md5DigestAsHex(report);
+        if (cachedReport != null && cachedReport.checksum.equals(checksum)) {
+            logger.info("Assembly report {} loaded from cache {}", assemblyReportUrl, cacheFile);
+            return cachedReport.contigSynonyms;
+        }
+
+        List<ContigSynonyms> contigSynonyms = parse(new AssemblyReportReader(new ByteArrayResource(report)));
+        writeCacheFile(cacheFile, assemblyReportUrl, checksum, contigSynonyms);
+        logger.info("Assembly report {} stored in cache {}", assemblyReportUrl, cacheFile);
+        return contigSynonyms;
+    }
+
+    private Path getCacheFile(String assemblyReportUrl) {
+        String urlHash = DigestUtils.md5DigestAsHex(assemblyReportUrl.getBytes(StandardCharsets.UTF_8));
+        return cacheDirectory.resolve(urlHash + CACHE_FILE_EXTENSION);
+    }
+
+    private byte[] download(String assemblyReportUrl) throws IOException {
+        try (InputStream inputStream = new UrlResource(assemblyReportUrl).getInputStream()) {
+            return StreamUtils.copyToByteArray(inputStream);
+        }
+    }
+
+    private List<ContigSynonyms> parse(AssemblyReportReader reader) throws Exception {
+        List<ContigSynonyms> contigSynonyms = new ArrayList<>();
+        ContigSynonyms row;
+        while ((row = reader.read()) != null) {
+            contigSynonyms.add(row);
+        }
+        return contigSynonyms;
+    }
+
+    /**
+     * Returns null if the file is not a valid cache of the given report, e.g. if it was written by another version
+     * of this class, so that the report is cached again.
+     */
+    private CachedReport readCacheFile(Path cacheFile, String assemblyReportUrl) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (input.readInt() != MAGIC_NUMBER || input.readInt() != FORMAT_VERSION
+                    || !input.readUTF().equals(assemblyReportUrl)) {
+                logger.warn("Ignoring invalid assembly report cache file {}", cacheFile);
+                return null;
+            }
+            String checksum = input.readUTF();
+            int rows = input.readInt();
+            List<ContigSynonyms> contigSynonyms = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                contigSynonyms.add(new ContigSynonyms(readNullableString(input), readNullableString(input),
+                                                      readNullableString(input), readNullableString(input),
+                                                      readNullableString(input), readNullableString(input),
+                                                      input.readBoolean()));
+            }
+            return new CachedReport(checksum, contigSynonyms);
+        } catch (IOException exception) {
+            logger.warn("Ignoring unreadable assembly report cache file {}", cacheFile, exception);
+            return null;
+        }
+    }
+
+    private String readNullableString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    /**
+     * The file is written under a temporary name and then moved, so that jobs running at the same time never read a
+     * partially written cache.
+     */
+    private void writeCacheFile(Path cacheFile, String assemblyReportUrl, String checksum,
+                                List<ContigSynonyms> contigSynonyms) throws IOException {
+        Files.createDirectories(cacheDirectory);
+        Path temporaryFile = Files.createTempFile(cacheDirectory, cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeInt(MAGIC_NUMBER);
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(assemblyReportUrl);
+                output.writeUTF(checksum);
+                output.writeInt(contigSynonyms.size());
+                for (ContigSynonyms row : contigSynonyms) {
+                    writeNullableString(output, row.getSequenceName());
+                    writeNullableString(output, row.getSequenceRole());
+                    writeNullableString(output, row.getAssignedMolecule());
+                    writeNullableString(output, row.getGenBank());
+                    writeNullableString(output, row.getRefSeq());
+                    writeNullableString(output, row.getUcsc());
+                    output.writeBoolean(row.isIdenticalGenBankAndRefSeq());
+                }
+            }
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private void writeNullableString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static class CachedReport {
+
+        private final String checksum;
+
+        private final List<ContigSynonyms> contigSynonyms;
+
+        CachedReport(String checksum, List<ContigSynonyms> contigSynonyms) {
+            this.checksum = checksum;
+            this.contigSynonyms = contigSynonyms;
+        }
+    }
+}
@@ -19,9 +19,14 @@ package uk.ac.ebi.eva.accession.core.contig;
 
 import uk.ac.ebi.eva.accession.core.batch.io.AssemblyReportReader;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.springframework.util.StringUtils.hasText;
 
@@ -41,6 +46,22 @@ public class ContigMapping {
 
     Map<String, ContigSynonyms> ucscToSynonyms = new HashMap<>();
 
+    /** Rows of the assembly report, in the same order as the file */
+    private List<ContigSynonyms> rows = new ArrayList<>();
+
+    /**
+     * Position in {@link #rows} of the synonyms of every name, in any naming convention. When a name appears in several
+     * rows, the row is chosen with the same priority as the convention maps: RefSeq, GenBank, assigned molecule,
+     * sequence name and UCSC.
+     */
+    private Map<String, Integer> contigIndex;
+
+    /** Synonyms of each row, by position in {@link #rows} */
+    private ContigSynonyms[] synonymsByIndex;
+
+    /** Name of each row in each naming convention, by {@link ContigNaming} ordinal and position in {@link #rows} */
+    private String[][] namesByNamingAndIndex;
+
     public ContigMapping(String assemblyReportUrl) throws Exception {
         this(new AssemblyReportReader(assemblyReportUrl));
     }
@@ -50,10 +71,12 @@ public class ContigMapping {
         while ((contigSynonyms = assemblyReportReader.read()) != null) {
             fillContigConventionMaps(contigSynonyms);
         }
+        buildContigIndex();
     }
 
     public ContigMapping(List<ContigSynonyms> contigSynonyms) {
         contigSynonyms.forEach(this::fillContigConventionMaps);
+        buildContigIndex();
     }
 
     /**
@@ -68,6 +91,7 @@ public class ContigMapping {
      */
     private void fillContigConventionMaps(ContigSynonyms contigSynonyms) {
         normalizeNames(contigSynonyms);
+        rows.add(contigSynonyms);
 
         if (contigSynonyms.getSequenceName() != null) {
             ContigSynonyms previousValue = sequenceNameToSynonyms.put(contigSynonyms.getSequenceName(), contigSynonyms);
@@ -96,6 +120,37 @@ public class ContigMapping {
 
     }
 
+    /**
+     * Merges the convention maps into a single index, so that the synonyms of a name are found with one lookup, and
+     * stores the synonyms of each row by naming convention, so that translating a name doesn't need the synonyms.
+     */
+    private void buildContigIndex() {
+        Map<ContigSynonyms, Integer> rowIndex = new IdentityHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            rowIndex.put(rows.get(i), i);
+        }
+
+        contigIndex = new HashMap<>();
+        // from lowest to highest priority, so that the rows of higher priority names overwrite the others
+        for (Map<String, ContigSynonyms> conventionMap : Arrays.asList(ucscToSynonyms, sequenceNameToSynonyms,
+                                                                       assignedMoleculeToSynonyms, genBankToSynonyms,
+                                                                       refSeqToSynonyms)) {
+            conventionMap.forEach((name, contigSynonyms) -> contigIndex.put(name, rowIndex.get(contigSynonyms)));
+        }
+
+        synonymsByIndex = rows.toArray(new ContigSynonyms[0]);
+        namesByNamingAndIndex = new String[ContigNaming.values().length][synonymsByIndex.length];
+        for (ContigNaming contigNaming : ContigNaming.values()) {
+            if (contigNaming == ContigNaming.NO_REPLACEMENT) {
+                continue;
+            }
+            for (int i = 0; i < synonymsByIndex.length; i++) {
+                namesByNamingAndIndex[contigNaming.ordinal()][i] = getContigSynonym(null, synonymsByIndex[i],
+                                                                                    contigNaming);
+            }
+        }
+    }
+
     private void normalizeNames(ContigSynonyms contigSynonyms) {
         if (NOT_AVAILABLE.equals(contigSynonyms.getSequenceName())) {
             contigSynonyms.setSequenceName(null);
@@ -116,23 +171,33 @@ public class ContigMapping {
     }
 
     public ContigSynonyms getContigSynonyms(String contig) {
-        ContigSynonyms contigSynonyms;
-        if ((contigSynonyms = refSeqToSynonyms.get(contig)) != null) {
-            return contigSynonyms;
-        }
-        if ((contigSynonyms = genBankToSynonyms.get(contig)) != null) {
-            return contigSynonyms;
-        }
-        if ((contigSynonyms = assignedMoleculeToSynonyms.get(contig)) != null) {
-            return contigSynonyms;
-        }
-        if ((contigSynonyms = sequenceNameToSynonyms.get(contig)) != null) {
-            return contigSynonyms;
+        Integer index = contigIndex.get(contig);
+        return index == null ? null : synonymsByIndex[index];
+    }
+
+    /**
+     * @return all the names of the contigs in the assembly report, in any naming convention
+     */
+    public Set<String> getContigNames() {
+        return Collections.unmodifiableSet(contigIndex.keySet());
+    }
+
+    /**
+     * Equivalent to {@link #getContigSynonym(String, ContigSynonyms, ContigNaming)} with the synonyms of the contig,
+     * but it takes the translated name directly from the index.
+     *
+     * @return the name of the contig in the given naming convention, or null if the contig or its synonym in that
+     * convention are not in the assembly report
+     */
+    public String getContigSynonym(String contig, ContigNaming contigNaming) {
+        Integer index = contigIndex.get(contig);
+        if (index == null) {
+            return null;
         }
-        if ((contigSynonyms = ucscToSynonyms.get(contig)) != null) {
-            return contigSynonyms;
+        if (contigNaming == ContigNaming.NO_REPLACEMENT) {
+            return contig;
         }
-        return null;
+        return namesByNamingAndIndex[contigNaming.ordinal()][index];
     }
 
     public String getContigSynonym(String contig, ContigSynonyms contigSynonyms, ContigNaming contigNaming) {
@@ -186,4 +251,21 @@ public class ContigMapping {
         }
         return true;
     }
+
+    /**
+     * Computes once the replacements allowed by {@link #isGenbankReplacementPossible}, so that processors can replace
+     * the contigs of many variants without checking the synonyms of each one.
+     *
+     * @return the GenBank accession that replaces each contig name, for the names that can be replaced
+     */
+    public Map<String, String> getGenbankReplacements() {
+        Map<String, String> genbankReplacements = new HashMap<>();
+        for (String contig : getContigNames()) {
+            ContigSynonyms contigSynonyms = getContigSynonyms(contig);
+            if (isGenbankReplacementPossible(contig, contigSynonyms, new StringBuilder())) {
+                genbankReplacements.put(contig, contigSynonyms.getGenBank());
+            }
+        }
+        return genbankReplacements;
+    }
 }
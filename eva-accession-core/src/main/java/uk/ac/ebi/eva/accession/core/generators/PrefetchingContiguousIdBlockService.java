@@ -0,0 +1,177 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.generators;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import uk.ac.ebi.ampt2d.commons.accession.persistence.jpa.monotonic.entities.ContiguousIdBlock;
+import uk.ac.ebi.ampt2d.commons.accession.persistence.jpa.monotonic.service.BlockParameters;
+import uk.ac.ebi.ampt2d.commons.accession.persistence.jpa.monotonic.service.ContiguousIdBlockService;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Block service for a {@link uk.ac.ebi.ampt2d.commons.accession.generators.monotonic.MonotonicAccessionGenerator}
+ * that reserves the next block in the background, so that the generator doesn't have to wait for the database when
+ * its current block runs out.
+ *
+ * The generator saves its blocks every time it commits accessions, and when the last committed accession of the
+ * most recently reserved block passes the fill threshold, the next block is requested to the wrapped service in a
+ * background thread. The next call to {@link #reserveNewBlock(String, String)} returns that block, or reserves one
+ * synchronously if the background reservation failed.
+ *
+ * Blocks are reserved one at a time by the wrapped service, so they are still handed to the generator in increasing
+ * order. A block reserved in advance is persisted like any other: if the application stops before using it, it is
+ * recovered as an uncompleted block of this instance in the next run.
+ *
+ * This class only extends {@link ContiguousIdBlockService} because that is the type the generator requires. It doesn't
+ * have a repository or block parameters of its own, so it overrides every public method of its superclass and
+ * delegates to the wrapped service.
+ */
+public class PrefetchingContiguousIdBlockService extends ContiguousIdBlockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchingContiguousIdBlockService.class);
+
+    private final ContiguousIdBlockService blockService;
+
+    private final double fillThreshold;
+
+    private final Executor reservationExecutor;
+
+    private final ExecutorService ownedReservationExecutor;
+
+    private ContiguousIdBlock currentBlock;
+
+    private CompletableFuture<ContiguousIdBlock> nextBlock;
+
+    /**
+     * @param blockService service used to reserve and save the blocks
+     * @param fillThreshold fraction of the current block, between 0 (exclusive) and 1 (inclusive), that has to be
+     * committed before the next block is reserved
+     */
+    public PrefetchingContiguousIdBlockService(ContiguousIdBlockService blockService, double fillThreshold) {
+        this(blockService, fillThreshold, createReservationExecutor(), true);
+    }
+
+    /**
+     * @param reservationExecutor executor of the reservations in advance, which is not shut down by {@link #shutdown()}
+     */
+    public PrefetchingContiguousIdBlockService(ContiguousIdBlockService blockService, double fillThreshold,
+                                               Executor reservationExecutor) {
+        this(blockService, fillThreshold, reservationExecutor, false);
+    }
+
+    private PrefetchingContiguousIdBlockService(ContiguousIdBlockService blockService, double fillThreshold,
+                                                Executor reservationExecutor, boolean ownedReservationExecutor) {
+        super(null, Collections.emptyMap());
+        if (fillThreshold <= 0 || fillThreshold > 1) {
+            throw new IllegalArgumentException("The block fill threshold must be greater than 0 and not above 1");
+        }
+        this.blockService = blockService;
+        this.fillThreshold = fillThreshold;
+        this.reservationExecutor = reservationExecutor;
+        this.ownedReservationExecutor = ownedReservationExecutor ? (ExecutorService) reservationExecutor : null;
+    }
+
+    private static ExecutorService createReservationExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("block-reservation-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    @Override
+    public synchronized ContiguousIdBlock reserveNewBlock(String categoryId, String instanceId) {
+        ContiguousIdBlock block = null;
+        if (nextBlock != null && isSameCategoryAndInstance(categoryId, instanceId)) {
+            try {
+                block = nextBlock.join();
+            } catch (CompletionException exception) {
+                logger.warn("The block reserved in advance for category {} and instance {} could not be retrieved, "
+                                    + "reserving it now", categoryId, instanceId, exception.getCause());
+            }
+        }
+        if (block == null) {
+            block = blockService.reserveNewBlock(categoryId, instanceId);
+        }
+        nextBlock = null;
+        currentBlock = block;
+        return block;
+    }
+
+    private boolean isSameCategoryAndInstance(String categoryId, String instanceId) {
+        return currentBlock.getCategoryId().equals(categoryId)
+                && currentBlock.getApplicationInstanceId().equals(instanceId);
+    }
+
+    @Override
+    public synchronized void save(Iterable<ContiguousIdBlock> blocks) {
+        blockService.save(blocks);
+        for (ContiguousIdBlock block : blocks) {
+            if (isCurrentBlock(block) && hasReachedFillThreshold(block)) {
+                reserveNextBlockInBackground(block.getCategoryId(), block.getApplicationInstanceId());
+            }
+        }
+    }
+
+    private boolean isCurrentBlock(ContiguousIdBlock block) {
+        return currentBlock != null && nextBlock == null && currentBlock.getFirstValue() == block.getFirstValue()
+                && currentBlock.getCategoryId().equals(block.getCategoryId());
+    }
+
+    private boolean hasReachedFillThreshold(ContiguousIdBlock block) {
+        long blockSize = block.getLastValue() - block.getFirstValue() + 1;
+        long committed = block.getLastCommitted() - block.getFirstValue() + 1;
+        return committed >= fillThreshold * blockSize;
+    }
+
+    private void reserveNextBlockInBackground(String categoryId, String instanceId) {
+        logger.debug("Reserving in advance the block after {}", currentBlock);
+        nextBlock = CompletableFuture.supplyAsync(() -> blockService.reserveNewBlock(categoryId, instanceId),
+                                                  reservationExecutor);
+    }
+
+    @Override
+    public BlockParameters getBlockParameters(String categoryId) {
+        return blockService.getBlockParameters(categoryId);
+    }
+
+    @Override
+    public List<ContiguousIdBlock> getUncompletedBlocksByCategoryIdAndApplicationInstanceIdOrderByEndAsc(
+            String categoryId, String applicationInstanceId) {
+        return blockService.getUncompletedBlocksByCategoryIdAndApplicationInstanceIdOrderByEndAsc(
+                categoryId, applicationInstanceId);
+    }
+
+    /**
+     * Waits for a reservation in progress, so that it isn't interrupted halfway, and stops the background thread if it
+     * was created by this service.
+     */
+    public synchronized void shutdown() {
+        if (ownedReservationExecutor != null) {
+            ownedReservationExecutor.shutdown();
+        }
+        if (nextBlock != null) {
+            nextBlock.exceptionally(exception -> null).join();
+        }
+    }
+}
@@ -19,6 +19,7 @@ package uk.ac.ebi.eva.accession.core.model;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.function.Function;
 
 import uk.ac.ebi.eva.commons.core.models.VariantType;
 
@@ -38,6 +39,12 @@ public class ClusteredVariant implements IClusteredVariant {
 
     private LocalDateTime createdDate;
 
+    /**
+     * Hash of the identifying fields, memoized by {@link #computeHashIfAbsent(Function)}. It is not part of the model
+     * (not serialized, nor used in equals/hashCode) and is discarded whenever an identifying field changes.
+     */
+    private transient String hash;
+
     ClusteredVariant() {
 
     }
@@ -75,6 +82,7 @@ public class ClusteredVariant implements IClusteredVariant {
 
     public void setAssemblyAccession(String assemblyAccession) {
         this.assemblyAccession = assemblyAccession;
+        this.hash = null;
     }
 
     @Override
@@ -93,6 +101,7 @@ public class ClusteredVariant implements IClusteredVariant {
 
     public void setContig(String contig) {
         this.contig = contig;
+        this.hash = null;
     }
 
     @Override
@@ -102,6 +111,7 @@ public class ClusteredVariant implements IClusteredVariant {
 
     public void setStart(long start) {
         this.start = start;
+        this.hash = null;
     }
 
     @Override
@@ -111,6 +121,7 @@ public class ClusteredVariant implements IClusteredVariant {
 
     public void setType(VariantType type) {
         this.type = type;
+        this.hash = null;
     }
 
     @Override
@@ -131,6 +142,21 @@ public class ClusteredVariant implements IClusteredVariant {
         this.createdDate = createdDate;
     }
 
+    /**
+     * Returns the hash of this variant, computing it with the given function only the first time it is requested.
+     *
+     * Callers must always pass the same hashing function (see {@link uk.ac.ebi.eva.accession.core.summary}), as the
+     * result is reused regardless of the function used afterwards.
+     */
+    public String computeHashIfAbsent(Function<? super IClusteredVariant, String> hashingFunction) {
+        String hash = this.hash;
+        if (hash == null) {
+            hash = hashingFunction.apply(this);
+            this.hash = hash;
+        }
+        return hash;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
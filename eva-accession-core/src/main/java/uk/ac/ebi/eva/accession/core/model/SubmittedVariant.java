@@ -19,6 +19,7 @@ package uk.ac.ebi.eva.accession.core.model;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.function.Function;
 
 public class SubmittedVariant implements ISubmittedVariant {
 
@@ -48,6 +49,12 @@ public class SubmittedVariant implements ISubmittedVariant {
 
     private LocalDateTime createdDate;
 
+    /**
+     * Hash of the identifying fields, memoized by {@link #computeHashIfAbsent(Function)}. It is not part of the model
+     * (not serialized, nor used in equals/hashCode) and is discarded whenever an identifying field changes.
+     */
+    private transient String hash;
+
     SubmittedVariant() {
     }
 
@@ -120,6 +127,7 @@ public class SubmittedVariant implements ISubmittedVariant {
 
     public void setReferenceSequenceAccession(String referenceSequenceAccession) {
         this.referenceSequenceAccession = referenceSequenceAccession;
+        this.hash = null;
     }
 
     @Override
@@ -138,6 +146,7 @@ public class SubmittedVariant implements ISubmittedVariant {
 
     public void setProjectAccession(String projectAccession) {
         this.projectAccession = projectAccession;
+        this.hash = null;
     }
 
     @Override
@@ -147,6 +156,7 @@ public class SubmittedVariant implements ISubmittedVariant {
 
     public void setContig(String contig) {
         this.contig = contig;
+        this.hash = null;
     }
 
     @Override
@@ -156,6 +166,7 @@ public class SubmittedVariant implements ISubmittedVariant {
 
     public void setStart(long start) {
         this.start = start;
+        this.hash = null;
     }
 
     @Override
@@ -165,6 +176,7 @@ public class SubmittedVariant implements ISubmittedVariant {
 
     public void setReferenceAllele(String referenceAllele) {
         this.referenceAllele = referenceAllele;
+        this.hash = null;
     }
 
     @Override
@@ -174,6 +186,7 @@ public class SubmittedVariant implements ISubmittedVariant {
 
     public void setAlternateAllele(String alternateAllele) {
         this.alternateAllele = alternateAllele;
+        this.hash = null;
     }
 
     @Override
@@ -230,6 +243,21 @@ public class SubmittedVariant implements ISubmittedVariant {
         this.validated = validated;
     }
 
+    /**
+     * Returns the hash of this variant, computing it with the given function only the first time it is requested.
+     *
+     * Callers must always pass the same hashing function (see {@link uk.ac.ebi.eva.accession.core.summary}), as the
+     * result is reused regardless of the function used afterwards.
+     */
+    public String computeHashIfAbsent(Function<? super ISubmittedVariant, String> hashingFunction) {
+        String hash = this.hash;
+        if (hash == null) {
+            hash = hashingFunction.apply(this);
+            this.hash = hash;
+        }
+        return hash;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
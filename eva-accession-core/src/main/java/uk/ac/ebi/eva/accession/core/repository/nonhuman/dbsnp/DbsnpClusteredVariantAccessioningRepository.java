@@ -22,8 +22,11 @@ import uk.ac.ebi.ampt2d.commons.accession.persistence.repositories.IAccessionedO
 
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
 
+import java.util.List;
+
 @Repository
 public interface DbsnpClusteredVariantAccessioningRepository extends
         IAccessionedObjectRepository<DbsnpClusteredVariantEntity, Long> {
 
+    List<DbsnpClusteredVariantEntity> findByHashedMessageIn(List<String> hashes);
 }
@@ -18,22 +18,27 @@
 
 package uk.ac.ebi.eva.accession.core.repository.nonhuman.eva;
 
+import org.bson.Document;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.models.AccessionProjection;
-import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.document.AccessionedDocument;
 import uk.ac.ebi.ampt2d.commons.accession.persistence.mongodb.repository.BasicMongoDbAccessionedCustomRepositoryImpl;
 
 import uk.ac.ebi.eva.accession.core.model.eva.ClusteredVariantEntity;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ClusteredVariantAccessioningRepositoryImpl
         extends BasicMongoDbAccessionedCustomRepositoryImpl<Long, ClusteredVariantEntity> {
 
+    private static final String ACCESSION_FIELD = "accession";
+
+    private static final String ID_FIELD = "_id";
+
     private MongoOperations mongoOperations;
 
     public ClusteredVariantAccessioningRepositoryImpl(MongoTemplate mongoTemplate) {
@@ -41,15 +46,24 @@ public class ClusteredVariantAccessioningRepositoryImpl
         mongoOperations = mongoTemplate;
     }
 
+    /**
+     * Used when recovering the monotonic accession blocks at start-up, so only the accession field is retrieved, and
+     * the documents are read one by one from a cursor instead of loading them all into memory first.
+     */
     public List<AccessionProjection<Long>> findByAccessionGreaterThanEqualAndAccessionLessThanEqual(Long start,
                                                                                                     Long end) {
-        Criteria criteria = new Criteria();
-        return mongoOperations.find(Query.query(criteria.andOperator(Criteria.where("accession").gte(start),
-                                                                     Criteria.where("accession").lte(end))),
-                                    ClusteredVariantEntity.class)
-                              .stream()
-                              .map(AccessionedDocument::getAccession)
-                              .map(accession -> (AccessionProjection<Long>) () -> accession)
-                              .collect(Collectors.toList());
+        Query query = Query.query(new Criteria().andOperator(Criteria.where(ACCESSION_FIELD).gte(start),
+                                                             Criteria.where(ACCESSION_FIELD).lte(end)));
+        query.fields().include(ACCESSION_FIELD).exclude(ID_FIELD);
+        String collectionName = mongoOperations.getCollectionName(ClusteredVariantEntity.class);
+
+        List<AccessionProjection<Long>> accessions = new ArrayList<>();
+        try (CloseableIterator<Document> documents = mongoOperations.stream(query, Document.class, collectionName)) {
+            while (documents.hasNext()) {
+                long accession = ((Number) documents.next().get(ACCESSION_FIELD)).longValue();
+                accessions.add(() -> accession);
+            }
+        }
+        return accessions;
     }
 }
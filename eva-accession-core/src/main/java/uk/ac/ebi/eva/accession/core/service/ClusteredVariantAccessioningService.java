@@ -20,18 +20,18 @@ package uk.ac.ebi.eva.accession.core.service;
 import uk.ac.ebi.ampt2d.commons.accession.core.BasicAccessioningService;
 import uk.ac.ebi.ampt2d.commons.accession.core.DatabaseService;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.AccessionWrapper;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 
 import uk.ac.ebi.eva.accession.core.generators.DbsnpMonotonicAccessionGenerator;
 import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
 import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.SubmittedVariantAccessioningService;
-import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
 import uk.ac.ebi.eva.commons.core.models.VariantType;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Service entry point for accessioning and querying clustered variants.
@@ -42,7 +42,7 @@ public class ClusteredVariantAccessioningService extends BasicAccessioningServic
 
     public ClusteredVariantAccessioningService(DbsnpMonotonicAccessionGenerator<IClusteredVariant> generator,
                                                DatabaseService<IClusteredVariant, String, Long> dbServiceDbsnp) {
-        super(generator, dbServiceDbsnp, new ClusteredVariantSummaryFunction(), new SHA1HashingFunction());
+        super(generator, dbServiceDbsnp, new ClusteredVariantHashingFunction(), Function.identity());
     }
 
     public Optional<AccessionWrapper<IClusteredVariant, String, Long>> getByIdFields(
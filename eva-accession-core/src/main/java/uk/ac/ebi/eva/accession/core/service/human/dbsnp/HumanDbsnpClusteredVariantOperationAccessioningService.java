@@ -16,13 +16,12 @@
 package uk.ac.ebi.eva.accession.core.service.human.dbsnp;
 
 import uk.ac.ebi.ampt2d.commons.accession.core.models.AccessionWrapper;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 
 import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantInactiveEntity;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantOperationEntity;
 import uk.ac.ebi.eva.accession.core.repository.human.dbsnp.HumanDbsnpClusteredVariantOperationRepository;
-import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,8 +31,7 @@ public class HumanDbsnpClusteredVariantOperationAccessioningService {
 
     private final HumanDbsnpClusteredVariantOperationRepository operationAccessionRepository;
 
-    private static Function<IClusteredVariant, String> hashingFunctionClustered =
-            new ClusteredVariantSummaryFunction().andThen(new SHA1HashingFunction());
+    private static Function<IClusteredVariant, String> hashingFunctionClustered = new ClusteredVariantHashingFunction();
 
     public HumanDbsnpClusteredVariantOperationAccessioningService(
             HumanDbsnpClusteredVariantOperationRepository operationAccessionRepository) {
@@ -19,7 +19,6 @@ package uk.ac.ebi.eva.accession.core.service.nonhuman;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.util.Pair;
 import uk.ac.ebi.ampt2d.commons.accession.core.AccessioningService;
 import uk.ac.ebi.ampt2d.commons.accession.core.exceptions.AccessionCouldNotBeGeneratedException;
 import uk.ac.ebi.ampt2d.commons.accession.core.exceptions.AccessionDeprecatedException;
@@ -31,13 +30,17 @@ import uk.ac.ebi.ampt2d.commons.accession.core.models.AccessionWrapper;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.GetOrCreateAccessionWrapper;
 
 import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
+import uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp.DbsnpSubmittedVariantHashFilter;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp.DbsnpSubmittedVariantMonotonicAccessioningService;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.eva.SubmittedVariantMonotonicAccessioningService;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class SubmittedVariantAccessioningService implements AccessioningService<ISubmittedVariant, String, Long> {
@@ -50,42 +53,126 @@ public class SubmittedVariantAccessioningService implements AccessioningService<
 
     private Long accessioningMonotonicInitSs;
 
+    /** Executor where the dbSNP collection is queried concurrently, or null to query the collections sequentially */
+    private Executor lookupExecutor;
+
+    private DbsnpSubmittedVariantHashFilter dbsnpHashFilter;
+
+    /**
+     * Queries the EVA and dbSNP collections one after the other, in the calling thread.
+     */
     public SubmittedVariantAccessioningService(SubmittedVariantMonotonicAccessioningService accessioningService,
                                                DbsnpSubmittedVariantMonotonicAccessioningService accessioningServiceDbsnp,
                                                Long accessioningMonotonicInitSs) {
+        this(accessioningService, accessioningServiceDbsnp, accessioningMonotonicInitSs, null);
+    }
+
+    /**
+     * @param lookupExecutor executor where the dbSNP collection is queried while the EVA collection is queried in the
+     * calling thread. Null to query the collections one after the other, in the calling thread
+     */
+    public SubmittedVariantAccessioningService(SubmittedVariantMonotonicAccessioningService accessioningService,
+                                               DbsnpSubmittedVariantMonotonicAccessioningService accessioningServiceDbsnp,
+                                               Long accessioningMonotonicInitSs, Executor lookupExecutor) {
         this.accessioningService = accessioningService;
         this.accessioningServiceDbsnp = accessioningServiceDbsnp;
         this.accessioningMonotonicInitSs = accessioningMonotonicInitSs;
+        this.lookupExecutor = lookupExecutor;
+    }
+
+    /**
+     * @param dbsnpHashFilter filter of the hashes in the dbSNP collection, used to skip querying that collection for
+     * variants that are definitely not there. It must be rebuilt after every import of dbSNP submitted variants into
+     * its assembly, or variants would be accessioned again in EVA. Null to always query the collection.
+     */
+    public void setDbsnpHashFilter(DbsnpSubmittedVariantHashFilter dbsnpHashFilter) {
+        this.dbsnpHashFilter = dbsnpHashFilter;
     }
 
     @Override
     public List<GetOrCreateAccessionWrapper<ISubmittedVariant, String, Long>> getOrCreate(
             List<? extends ISubmittedVariant> variants)
             throws AccessionCouldNotBeGeneratedException {
-        List<AccessionWrapper<ISubmittedVariant, String, Long>> dbsnpVariants = accessioningServiceDbsnp.get(variants);
+        if (lookupExecutor != null) {
+            return getOrCreateWithConcurrentLookups(variants);
+        }
+        List<AccessionWrapper<ISubmittedVariant, String, Long>> dbsnpVariants = getFromDbsnp(variants);
         List<ISubmittedVariant> variantsNotInDbsnp = removeFromList(variants, dbsnpVariants);
         if (variantsNotInDbsnp.isEmpty()) {
             // check this special case because mongo bulk inserts don't allow inserting empty lists
             // (accession-commons BasicMongoDbAccessionedCustomRepositoryImpl.insert would need to change)
-            return dbsnpVariants.stream().map(d -> new GetOrCreateAccessionWrapper<>
-                    (d.getAccession(),
-                     d.getHash(),
-                     d.getData(), false)).collect(Collectors.toList());
+            return toGetOrCreateWrappers(dbsnpVariants);
         } else {
-            List<AccessionWrapper<ISubmittedVariant, String, Long>> submittedVariants = new ArrayList<>();
-            accessioningService.getOrCreate(variantsNotInDbsnp)
-                               .forEach(getOrCreateAccessionWrapperObj -> submittedVariants.add(
-                                       new AccessionWrapper<ISubmittedVariant, String, Long>
-                                               (getOrCreateAccessionWrapperObj.getAccession(),
-                                                getOrCreateAccessionWrapperObj.getHash(),
-                                                getOrCreateAccessionWrapperObj.getData())));
-            return joinLists(submittedVariants, dbsnpVariants)
-                    .stream()
-                    .map(d -> new GetOrCreateAccessionWrapper<>
-                            (d.getAccession(),
-                             d.getHash(),
-                             d.getData(), false)).collect(Collectors.toList());
+            List<AccessionWrapper<ISubmittedVariant, String, Long>> submittedVariants = getOrCreateInEva(
+                    variantsNotInDbsnp);
+            return toGetOrCreateWrappers(joinLists(submittedVariants, dbsnpVariants));
+        }
+    }
+
+    /**
+     * Queries both collections at the same time, and then only creates in the EVA collection the variants that were
+     * found in neither. The result is the same as the sequential version: variants present in dbSNP are not looked up
+     * in EVA, and variants present in EVA are returned without trying to create them again.
+     *
+     * The results are also in the same order as the sequential version, where the EVA getOrCreate returns the new
+     * variants before the ones already present: new variants, then variants already in EVA, then variants in dbSNP.
+     */
+    private List<GetOrCreateAccessionWrapper<ISubmittedVariant, String, Long>> getOrCreateWithConcurrentLookups(
+            List<? extends ISubmittedVariant> variants) throws AccessionCouldNotBeGeneratedException {
+        CompletableFuture<List<AccessionWrapper<ISubmittedVariant, String, Long>>> dbsnpLookup =
+                CompletableFuture.supplyAsync(() -> getFromDbsnp(variants), lookupExecutor);
+        List<AccessionWrapper<ISubmittedVariant, String, Long>> evaVariants = accessioningService.get(variants);
+        List<AccessionWrapper<ISubmittedVariant, String, Long>> dbsnpVariants = join(dbsnpLookup);
+
+        Set<String> dbsnpHashes = dbsnpVariants.stream().map(AccessionWrapper::getHash).collect(Collectors.toSet());
+        List<ISubmittedVariant> newVariants = removeFromList(removeFromList(variants, dbsnpVariants), evaVariants);
+        List<AccessionWrapper<ISubmittedVariant, String, Long>> submittedVariants = new ArrayList<>();
+        if (!newVariants.isEmpty()) {
+            submittedVariants.addAll(getOrCreateInEva(newVariants));
         }
+        evaVariants.stream()
+                   .filter(evaVariant -> !dbsnpHashes.contains(evaVariant.getHash()))
+                   .forEach(submittedVariants::add);
+        return toGetOrCreateWrappers(joinLists(submittedVariants, dbsnpVariants));
+    }
+
+    /**
+     * Queries the dbSNP collection only for the variants that the hash filter, if any, doesn't rule out.
+     */
+    private List<AccessionWrapper<ISubmittedVariant, String, Long>> getFromDbsnp(
+            List<? extends ISubmittedVariant> variants) {
+        if (dbsnpHashFilter == null) {
+            return accessioningServiceDbsnp.get(variants);
+        }
+        List<ISubmittedVariant> variantsMaybeInDbsnp = variants.stream()
+                .filter(variant -> dbsnpHashFilter.mightContain(variant.getReferenceSequenceAccession(),
+                                                                accessioningServiceDbsnp.getHash(variant)))
+                .collect(Collectors.toList());
+        if (variantsMaybeInDbsnp.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return accessioningServiceDbsnp.get(variantsMaybeInDbsnp);
+    }
+
+    private List<AccessionWrapper<ISubmittedVariant, String, Long>> getOrCreateInEva(
+            List<ISubmittedVariant> variants) throws AccessionCouldNotBeGeneratedException {
+        List<AccessionWrapper<ISubmittedVariant, String, Long>> submittedVariants = new ArrayList<>();
+        accessioningService.getOrCreate(variants)
+                           .forEach(getOrCreateAccessionWrapperObj -> submittedVariants.add(
+                                   new AccessionWrapper<ISubmittedVariant, String, Long>
+                                           (getOrCreateAccessionWrapperObj.getAccession(),
+                                            getOrCreateAccessionWrapperObj.getHash(),
+                                            getOrCreateAccessionWrapperObj.getData())));
+        return submittedVariants;
+    }
+
+    private List<GetOrCreateAccessionWrapper<ISubmittedVariant, String, Long>> toGetOrCreateWrappers(
+            List<AccessionWrapper<ISubmittedVariant, String, Long>> accessionWrappers) {
+        return accessionWrappers.stream()
+                                .map(d -> new GetOrCreateAccessionWrapper<>
+                                        (d.getAccession(),
+                                         d.getHash(),
+                                         d.getData(), false)).collect(Collectors.toList());
     }
 
     private List<ISubmittedVariant> removeFromList(List<? extends ISubmittedVariant> allVariants,
@@ -95,10 +182,9 @@ public class SubmittedVariantAccessioningService implements AccessioningService<
                                                      .map(AccessionWrapper::getHash)
                                                      .collect(Collectors.toSet());
 
+        // the hash was already computed when querying dbSNP, and it's memoized in SubmittedVariant instances
         return allVariants.stream()
-                          .map(variant -> Pair.of(accessioningServiceDbsnp.getHash(variant), variant))
-                          .filter(pair -> !hashesToDelete.contains(pair.getFirst()))
-                          .map(Pair::getSecond)
+                          .filter(variant -> !hashesToDelete.contains(accessioningServiceDbsnp.getHash(variant)))
                           .collect(Collectors.toList());
     }
 
@@ -109,9 +195,44 @@ public class SubmittedVariantAccessioningService implements AccessioningService<
         return l1;
     }
 
+    /**
+     * Runs the dbSNP lookup in the lookup executor while the EVA lookup runs in the calling thread, and joins the
+     * results in the same order as {@link #joinLists(List, List)}. Without lookup executor, both run in the calling
+     * thread.
+     */
+    private List<AccessionWrapper<ISubmittedVariant, String, Long>> joinLookups(
+            Supplier<List<AccessionWrapper<ISubmittedVariant, String, Long>>> evaLookup,
+            Supplier<List<AccessionWrapper<ISubmittedVariant, String, Long>>> dbsnpLookup) {
+        if (lookupExecutor == null) {
+            return joinLists(evaLookup.get(), dbsnpLookup.get());
+        }
+        CompletableFuture<List<AccessionWrapper<ISubmittedVariant, String, Long>>> dbsnpVariants =
+                CompletableFuture.supplyAsync(dbsnpLookup, lookupExecutor);
+        List<AccessionWrapper<ISubmittedVariant, String, Long>> evaVariants = evaLookup.get();
+        return joinLists(evaVariants, join(dbsnpVariants));
+    }
+
+    /**
+     * Waits for a lookup, rethrowing the original exception if it failed.
+     */
+    private <T> T join(CompletableFuture<T> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw exception;
+        }
+    }
+
     @Override
     public List<AccessionWrapper<ISubmittedVariant, String, Long>> get(List<? extends ISubmittedVariant> variants) {
-        return joinLists(accessioningService.get(variants), accessioningServiceDbsnp.get(variants));
+        return joinLookups(() -> accessioningService.get(variants), () -> getFromDbsnp(variants));
     }
 
     /**
@@ -140,17 +261,13 @@ public class SubmittedVariantAccessioningService implements AccessioningService<
 
     public List<AccessionWrapper<ISubmittedVariant, String, Long>> getByClusteredVariantAccessionIn(
             List<Long> clusteredVariantAccessions) {
-        return joinLists(accessioningService.getByClusteredVariantAccessionIn(clusteredVariantAccessions),
-                         accessioningServiceDbsnp.getByClusteredVariantAccessionIn(clusteredVariantAccessions));
+        return joinLookups(() -> accessioningService.getByClusteredVariantAccessionIn(clusteredVariantAccessions),
+                           () -> accessioningServiceDbsnp.getByClusteredVariantAccessionIn(clusteredVariantAccessions));
     }
 
     public List<AccessionWrapper<ISubmittedVariant, String, Long>> getByHashedMessageIn(List<String> hashes) {
-        return joinLists(
-                hashes.stream().flatMap(hash -> accessioningService.getByHash(Collections.singletonList(hash)).stream())
-                      .collect(Collectors.toList()),
-                hashes.stream().flatMap(
-                        hash -> accessioningServiceDbsnp.getByHash(Collections.singletonList(hash)).stream())
-                      .collect(Collectors.toList()));
+        return joinLookups(() -> accessioningService.getByHash(hashes),
+                           () -> accessioningServiceDbsnp.getByHash(hashes));
     }
 
     @Override
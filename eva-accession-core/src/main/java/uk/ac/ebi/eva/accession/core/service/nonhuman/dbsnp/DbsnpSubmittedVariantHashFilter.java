@@ -0,0 +1,210 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Bloom filter over the hashes of the dbSNP submitted variants of one assembly.
+ *
+ * A negative answer of {@link #mightContain(String, String)} means that the hash is definitely not in the dbSNP
+ * collection (as it was when the filter was built), so the lookup in that collection can be skipped. A positive
+ * answer may be a false positive, and the collection must be queried as usual. Variants of other assemblies are
+ * always reported as possibly present.
+ *
+ * The hashes are SHA-1 digests in hexadecimal, which are already uniformly distributed, so the bit positions are
+ * derived from the first 128 bits of the digest with double hashing instead of hashing the string again.
+ *
+ * The filter has to be rebuilt whenever dbSNP submitted variants are imported into the assembly. The number of hashes
+ * added is stored with the filter, so that an outdated filter can be detected by comparing it with the number of
+ * variants of the assembly in the dbSNP collection.
+ */
+public class DbsnpSubmittedVariantHashFilter {
+
+    private static final int MAGIC_NUMBER = 0x45564148;
+
+    private static final int FORMAT_VERSION = 2;
+
+    private static final int HEX_DIGITS_PER_LONG = 16;
+
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    private final String assemblyAccession;
+
+    private final int numberOfHashFunctions;
+
+    private final long numberOfBits;
+
+    private final long[] words;
+
+    private long numberOfHashes;
+
+    private DbsnpSubmittedVariantHashFilter(String assemblyAccession, long numberOfHashes, int numberOfHashFunctions,
+                                            long[] words) {
+        if (assemblyAccession == null) {
+            throw new IllegalArgumentException("The assembly accession of the filter is required");
+        }
+        this.assemblyAccession = assemblyAccession;
+        this.numberOfHashes = numberOfHashes;
+        this.numberOfHashFunctions = numberOfHashFunctions;
+        this.numberOfBits = (long) words.length * BITS_PER_WORD;
+        this.words = words;
+    }
+
+    /**
+     * Creates an empty filter sized to hold the given number of hashes with the given false positive rate.
+     */
+    public static DbsnpSubmittedVariantHashFilter create(String assemblyAccession, long expectedHashes,
+                                                         double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1, exclusive");
+        }
+        long hashes = Math.max(1, expectedHashes);
+        double optimalBits = -hashes * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long numberOfWords = Math.max(1, (long) Math.ceil(optimalBits / BITS_PER_WORD));
+        if (numberOfWords > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Too many hashes (" + expectedHashes + ") for a false positive rate of " + falsePositiveRate);
+        }
+        long numberOfBits = numberOfWords * BITS_PER_WORD;
+        int numberOfHashFunctions = Math.max(1, (int) Math.round((double) numberOfBits / hashes * Math.log(2)));
+        return new DbsnpSubmittedVariantHashFilter(assemblyAccession, 0, numberOfHashFunctions,
+                                                   new long[(int) numberOfWords]);
+    }
+
+    public String getAssemblyAccession() {
+        return assemblyAccession;
+    }
+
+    /**
+     * @return number of calls to {@link #add(String)} when the filter was built
+     */
+    public long getNumberOfHashes() {
+        return numberOfHashes;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the hash is not a hexadecimal digest of at least 128 bits
+     */
+    public void add(String hash) {
+        if (!isDigest(hash)) {
+            throw new IllegalArgumentException("Only hexadecimal digests can be added to the filter: " + hash);
+        }
+        long firstHash = parseHex(hash, 0);
+        long secondHash = parseHex(hash, HEX_DIGITS_PER_LONG) | 1;
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            long bit = bitIndex(firstHash + i * secondHash);
+            words[(int) (bit / BITS_PER_WORD)] |= 1L << (bit % BITS_PER_WORD);
+        }
+        numberOfHashes++;
+    }
+
+    /**
+     * @return false only if the hash belongs to the assembly of this filter and it was never added to it
+     */
+    public boolean mightContain(String assemblyAccession, String hash) {
+        if (!this.assemblyAccession.equals(assemblyAccession) || !isDigest(hash)) {
+            return true;
+        }
+        long firstHash = parseHex(hash, 0);
+        long secondHash = parseHex(hash, HEX_DIGITS_PER_LONG) | 1;
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            long bit = bitIndex(firstHash + i * secondHash);
+            if ((words[(int) (bit / BITS_PER_WORD)] & (1L << (bit % BITS_PER_WORD))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long bitIndex(long combinedHash) {
+        return (combinedHash & Long.MAX_VALUE) % numberOfBits;
+    }
+
+    private static boolean isDigest(String hash) {
+        if (hash == null || hash.length() < 2 * HEX_DIGITS_PER_LONG) {
+            return false;
+        }
+        for (int i = 0; i < 2 * HEX_DIGITS_PER_LONG; i++) {
+            if (Character.digit(hash.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String hash, int start) {
+        long value = 0;
+        for (int i = start; i < start + HEX_DIGITS_PER_LONG; i++) {
+            value = (value << 4) | Character.digit(hash.charAt(i), 16);
+        }
+        return value;
+    }
+
+    /**
+     * Writes the filter to a temporary file next to the given one, and then moves it into place, so that a failure
+     * while writing doesn't leave a truncated filter behind.
+     */
+    public void writeTo(Path path) throws IOException {
+        Path absolutePath = path.toAbsolutePath();
+        Path temporaryPath = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(),
+                                                  ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+                output.writeInt(MAGIC_NUMBER);
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(assemblyAccession);
+                output.writeLong(numberOfHashes);
+                output.writeInt(numberOfHashFunctions);
+                output.writeInt(words.length);
+                for (long word : words) {
+                    output.writeLong(word);
+                }
+            }
+            Files.move(temporaryPath, absolutePath, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    public static DbsnpSubmittedVariantHashFilter readFrom(Path path) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (input.readInt() != MAGIC_NUMBER) {
+                throw new IOException("File " + path + " is not a dbSNP submitted variant hash filter");
+            }
+            int version = input.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported version " + version + " of the hash filter in " + path);
+            }
+            String assemblyAccession = input.readUTF();
+            long numberOfHashes = input.readLong();
+            int numberOfHashFunctions = input.readInt();
+            long[] words = new long[input.readInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = input.readLong();
+            }
+            return new DbsnpSubmittedVariantHashFilter(assemblyAccession, numberOfHashes, numberOfHashFunctions, words);
+        }
+    }
+}
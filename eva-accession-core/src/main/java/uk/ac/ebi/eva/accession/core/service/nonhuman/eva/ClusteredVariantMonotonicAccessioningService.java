@@ -22,6 +22,7 @@ import uk.ac.ebi.ampt2d.commons.accession.core.BasicAccessioningService;
 import uk.ac.ebi.ampt2d.commons.accession.generators.monotonic.MonotonicAccessionGenerator;
 
 import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
 
 import java.util.function.Function;
 
@@ -35,4 +36,15 @@ public class ClusteredVariantMonotonicAccessioningService
             Function<String, String> hashingFunction) {
         super(accessionGenerator, dbService, summaryFunction, hashingFunction);
     }
+
+    /**
+     * Uses a single function to compute the hash of a variant, e.g. {@link ClusteredVariantHashingFunction}, instead of
+     * hashing an intermediate summary.
+     */
+    public ClusteredVariantMonotonicAccessioningService(
+            MonotonicAccessionGenerator<IClusteredVariant> accessionGenerator,
+            ClusteredVariantAccessioningDatabaseService dbService,
+            Function<IClusteredVariant, String> hashingFunction) {
+        this(accessionGenerator, dbService, hashingFunction, Function.identity());
+    }
 }
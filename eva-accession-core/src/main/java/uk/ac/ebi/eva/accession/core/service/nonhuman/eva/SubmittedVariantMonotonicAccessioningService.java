@@ -20,6 +20,7 @@ import uk.ac.ebi.ampt2d.commons.accession.core.models.AccessionWrapper;
 import uk.ac.ebi.ampt2d.commons.accession.generators.monotonic.MonotonicAccessionGenerator;
 
 import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
 
 import java.util.List;
 import java.util.function.Function;
@@ -38,6 +39,17 @@ public class SubmittedVariantMonotonicAccessioningService
         this.dbService = dbService;
     }
 
+    /**
+     * Uses a single function to compute the hash of a variant, e.g. {@link SubmittedVariantHashingFunction}, instead of
+     * hashing an intermediate summary.
+     */
+    public SubmittedVariantMonotonicAccessioningService(
+            MonotonicAccessionGenerator<ISubmittedVariant> accessionGenerator,
+            SubmittedVariantAccessioningDatabaseService dbService,
+            Function<ISubmittedVariant, String> hashingFunction) {
+        this(accessionGenerator, dbService, hashingFunction, Function.identity());
+    }
+
     public List<AccessionWrapper<ISubmittedVariant, String, Long>> getByClusteredVariantAccessionIn(
             List<Long> clusteredVariantAccessions) {
         return dbService.findByClusteredVariantAccessionIn(clusteredVariantAccessions);
@@ -0,0 +1,60 @@
+/*
+ *
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.ebi.eva.accession.core.summary;
+
+import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
+import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
+
+import java.util.function.Function;
+
+/**
+ * Computes the hash of a SubmittedVariant from its identifying fields.
+ *
+ * The result is the same as {@code new SubmittedVariantSummaryFunction().andThen(new SHA1HashingFunction())}, but
+ * the summary string is never built and the intermediate buffers are reused, see {@link VariantSummaryHasher}.
+ *
+ * When the model is a {@link SubmittedVariant}, the hash is memoized in it (see
+ * {@link SubmittedVariant#computeHashIfAbsent}), so hashing the same object again along the pipeline, e.g. in the dbSNP
+ * and EVA services, does not compute it again.
+ *
+ * Instances hold no state and are safe to share between threads.
+ */
+public class SubmittedVariantHashingFunction implements Function<ISubmittedVariant, String> {
+
+    private final Function<ISubmittedVariant, String> computeHash = this::computeHash;
+
+    @Override
+    public String apply(ISubmittedVariant model) {
+        if (model instanceof SubmittedVariant) {
+            return ((SubmittedVariant) model).computeHashIfAbsent(computeHash);
+        }
+        return computeHash(model);
+    }
+
+    private String computeHash(ISubmittedVariant model) {
+        return VariantSummaryHasher.get()
+                                   .append(model.getReferenceSequenceAccession())
+                                   .appendSeparator().append(model.getProjectAccession())
+                                   .appendSeparator().append(model.getContig())
+                                   .appendSeparator().append(model.getStart())
+                                   .appendSeparator().append(model.getReferenceAllele())
+                                   .appendSeparator().append(model.getAlternateAllele())
+                                   .toHexDigest();
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ *
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.ebi.eva.accession.core.summary;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the SHA1 of a variant summary without building the summary string.
+ *
+ * The fields are encoded as UTF-8 straight into a byte buffer, which is then digested and written as uppercase
+ * hexadecimal into a char buffer. The buffers and the {@link MessageDigest} are reused across calls, and there is one
+ * instance per thread, so the only object allocated per hash is the returned string.
+ *
+ * The encoding reproduces {@link StringBuilder#append(String)} followed by {@link String#getBytes} with UTF-8: null
+ * values are written as "null" and unpaired surrogates as '?'. This way the result is identical to applying a summary
+ * function followed by {@link uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction}.
+ */
+final class VariantSummaryHasher {
+
+    private static final String SHA1_ALGORITHM = "SHA-1";
+
+    private static final int SHA1_LENGTH = 20;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final byte SEPARATOR = '_';
+
+    private static final byte[] NULL_BYTES = {'n', 'u', 'l', 'l'};
+
+    private static final byte UNMAPPABLE_CHARACTER = '?';
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private static final ThreadLocal<VariantSummaryHasher> HASHERS = ThreadLocal.withInitial(
+            VariantSummaryHasher::new);
+
+    private final MessageDigest messageDigest;
+
+    private final byte[] digest;
+
+    private final char[] hexDigest;
+
+    private byte[] buffer;
+
+    private int length;
+
+    private VariantSummaryHasher() {
+        try {
+            messageDigest = MessageDigest.getInstance(SHA1_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not create a " + SHA1_ALGORITHM + " message digest", e);
+        }
+        digest = new byte[SHA1_LENGTH];
+        hexDigest = new char[SHA1_LENGTH * 2];
+        buffer = new byte[INITIAL_BUFFER_SIZE];
+    }
+
+    /**
+     * Returns the hasher of the current thread, ready to receive the fields of a new summary.
+     */
+    static VariantSummaryHasher get() {
+        VariantSummaryHasher hasher = HASHERS.get();
+        hasher.length = 0;
+        return hasher;
+    }
+
+    VariantSummaryHasher append(String value) {
+        if (value == null) {
+            ensureCapacity(NULL_BYTES.length);
+            System.arraycopy(NULL_BYTES, 0, buffer, length, NULL_BYTES.length);
+            length += NULL_BYTES.length;
+            return this;
+        }
+        int valueLength = value.length();
+        // a char never takes more than 3 bytes in UTF-8 (surrogate pairs take 4 bytes for 2 chars)
+        ensureCapacity(valueLength * 3);
+        for (int i = 0; i < valueLength; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[length++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[length++] = (byte) (0xC0 | (c >> 6));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < valueLength
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    buffer[length++] = UNMAPPABLE_CHARACTER;
+                }
+            } else {
+                buffer[length++] = (byte) (0xE0 | (c >> 12));
+                buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    VariantSummaryHasher append(long value) {
+        // the longest value is Long.MIN_VALUE: a sign and 19 digits
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+        } else {
+            // work with negative values so that Long.MIN_VALUE doesn't overflow
+            value = -value;
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining != 0; remaining /= 10) {
+            digits++;
+        }
+        int position = length + digits;
+        do {
+            buffer[--position] = (byte) ('0' - (value % 10));
+            value /= 10;
+        } while (value != 0);
+        length += digits;
+        return this;
+    }
+
+    VariantSummaryHasher appendSeparator() {
+        ensureCapacity(1);
+        buffer[length++] = SEPARATOR;
+        return this;
+    }
+
+    /**
+     * Digests the fields appended so far and returns the SHA1 as an uppercase hexadecimal string.
+     */
+    String toHexDigest() {
+        messageDigest.update(buffer, 0, length);
+        try {
+            messageDigest.digest(digest, 0, SHA1_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Could not compute the " + SHA1_ALGORITHM + " of a variant summary", e);
+        }
+        for (int i = 0; i < SHA1_LENGTH; i++) {
+            hexDigest[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0x0F];
+            hexDigest[2 * i + 1] = HEX_DIGITS[digest[i] & 0x0F];
+        }
+        length = 0;
+        return new String(hexDigest);
+    }
+
+    private void ensureCapacity(int additionalBytes) {
+        int requiredLength = length + additionalBytes;
+        if (requiredLength > buffer.length) {
+            byte[] newBuffer = new byte[Math.max(requiredLength, buffer.length * 2)];
+            System.arraycopy(buffer, 0, newBuffer, 0, length);
+            buffer = newBuffer;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The file "bgzipped.fa.gz" has the same contents as "fastaWithNoDictionary.fa", compressed in blocks of 100 bytes so
+ * that the sequences are split between several blocks.
+ */
+public class BgzfFastaSequenceFileTest {
+
+    private static final String CONTIG = "22";
+
+    private static final String BGZIPPED_FASTA = "bgzipped.fa.gz";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void getSequenceSplitInSeveralBlocks() throws Exception {
+        BgzfFastaSequenceFile bgzfFastaFile = new BgzfFastaSequenceFile(getFasta(BGZIPPED_FASTA));
+
+        assertEquals("CAGCCGCAGTCCGGACAGCGCATGCGCCAGCCGCGAGACCGCACAGCGCATGCGCCAGCGCGAGTGACAGCG",
+                     bgzfFastaFile.getSubsequence(CONTIG, 174, 245));
+        bgzfFastaFile.close();
+    }
+
+    @Test
+    public void sameSequencesAsUncompressedFasta() throws Exception {
+        FastaSequenceReader uncompressedReader = new FastaSequenceReader(getFasta("fastaWithNoDictionary.fa"));
+        // a single cached block forces inflating the blocks again when the regions overlap
+        BgzfFastaSequenceFile bgzfFastaFile = new BgzfFastaSequenceFile(getFasta(BGZIPPED_FASTA), 1);
+
+        for (long start = 1; start <= 540; start += 7) {
+            for (long end = start; end <= Math.min(540, start + 130); end += 13) {
+                assertEquals(uncompressedReader.getSequence(CONTIG, start, end),
+                             bgzfFastaFile.getSubsequence(CONTIG, start, end));
+            }
+        }
+        uncompressedReader.close();
+        bgzfFastaFile.close();
+    }
+
+    @Test
+    public void readThroughFastaSequenceReader() throws Exception {
+        FastaSequenceReader reader = new FastaSequenceReader(getFasta(BGZIPPED_FASTA));
+
+        assertTrue(reader.doesContigExist(CONTIG));
+        assertFalse(reader.doesContigExist("23"));
+        assertEquals("A", reader.getSequence(CONTIG, 540, 540));
+        reader.close();
+    }
+
+    @Test
+    public void detectBgzf() throws Exception {
+        assertTrue(BgzfFastaSequenceFile.isBgzf(getFasta(BGZIPPED_FASTA)));
+        assertFalse(BgzfFastaSequenceFile.isBgzf(getFasta("compressed.fa.gz")));
+        assertFalse(BgzfFastaSequenceFile.isBgzf(getFasta("fastaWithNoDictionary.fa")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingGziIndex() throws Exception {
+        Path fasta = getFasta(BGZIPPED_FASTA);
+        Files.delete(fasta.resolveSibling(BGZIPPED_FASTA + BgzfFastaSequenceFile.GZI_INDEX_EXTENSION));
+        new BgzfFastaSequenceFile(fasta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void coordinatesGreaterThanEndOfChromosomeAreNotAllowed() throws Exception {
+        BgzfFastaSequenceFile bgzfFastaFile = new BgzfFastaSequenceFile(getFasta(BGZIPPED_FASTA));
+        bgzfFastaFile.getSubsequence(CONTIG, 535, 545);
+    }
+
+    private Path getFasta(String fastaFilename) throws IOException, URISyntaxException {
+        Path folder = temporaryFolder.getRoot().toPath();
+        for (String filename : new String[]{fastaFilename, fastaFilename + FastaIndex.INDEX_EXTENSION,
+                fastaFilename + BgzfFastaSequenceFile.GZI_INDEX_EXTENSION}) {
+            Path resource = Paths.get(
+                    BgzfFastaSequenceFileTest.class.getResource("/input-files/fasta/").toURI()).resolve(filename);
+            if (Files.exists(resource) && !Files.exists(folder.resolve(filename))) {
+                Files.copy(resource, folder.resolve(filename));
+            }
+        }
+        return folder.resolve(fastaFilename);
+    }
+}
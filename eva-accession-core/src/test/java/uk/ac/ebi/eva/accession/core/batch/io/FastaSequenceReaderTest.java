@@ -15,6 +15,7 @@
  */
 package uk.ac.ebi.eva.accession.core.batch.io;
 
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.junit.After;
 import org.junit.Before;
@@ -24,14 +25,24 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 
+import uk.ac.ebi.eva.accession.core.exceptions.PositionOutsideOfContigException;
+import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
+
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class FastaSequenceReaderTest {
 
@@ -117,19 +128,22 @@ public class FastaSequenceReaderTest {
     }
 
     private FastaSequenceReader getFastaSequenceReader(String fastaFilename) throws IOException, URISyntaxException {
+        return new FastaSequenceReader(copyFasta(fastaFilename));
+    }
+
+    private Path copyFasta(String fastaFilename) throws IOException, URISyntaxException {
         File temporaryFolderRoot = temporaryFolder.getRoot();
-        Path fasta = Files.copy(
+        return Files.copy(
                 Paths.get(FastaSequenceReaderTest.class.getResource("/input-files/fasta/" + fastaFilename).toURI()),
                 temporaryFolderRoot.toPath().resolve(fastaFilename));
-
-        return new FastaSequenceReader(fasta);
     }
 
     /**
      * @TODO find the bug: either we don't use properly htsjdk, or they have a bug reading compressed fastas.
      * This test is ignored because to run it we have to remove the requirement in
-     * {@link FastaSequenceReader#checkFastaIsUncompressed(java.nio.file.Path)} that
-     * forbids compressed fastas. You can comment the requirement by hand and run this test to see if it still applies.
+     * {@link FastaSequenceReader#openCompressedFasta(java.nio.file.Path)} that
+     * forbids reading compressed fastas through htsjdk. You can comment the requirement by hand and run this test to
+     * see if it still applies.
      */
     @Test
     @Ignore
@@ -142,7 +156,7 @@ public class FastaSequenceReaderTest {
 
     /**
      * For the rationale of this test, look at {@link #htsDoesNotSupportCompressedFastas()} and
-     *  {@link FastaSequenceReader#checkFastaIsUncompressed(java.nio.file.Path)}
+     *  {@link FastaSequenceReader#openCompressedFasta(java.nio.file.Path)}
      */
     @Test
     public void shouldThrowOnCompressedFasta() throws URISyntaxException, IOException {
@@ -190,4 +204,124 @@ public class FastaSequenceReaderTest {
         expected = new ImmutableTriple<Long, String, String>(1L, "TGC", "C");
         assertEquals(expected, reader.getContextNucleotideAndNewStart("22", 1, "TG", ""));
     }
+
+    @Test
+    public void getBasesInOriginalOrder() {
+        List<String> bases = reader.getBases(Arrays.asList(new ImmutablePair<>("22", 60075L),
+                                                           new ImmutablePair<>("22", 1L),
+                                                           new ImmutablePair<>("22", 59986L),
+                                                           new ImmutablePair<>("22", 0L),
+                                                           new ImmutablePair<>("22", 4729743L)));
+        assertEquals(Arrays.asList("A", "T", "G", "", "G"), bases);
+    }
+
+    @Test
+    public void getBasesOutsideOfContig() {
+        thrown.expect(IllegalArgumentException.class);
+        reader.getBases(Arrays.asList(new ImmutablePair<>("22", 4729743L), new ImmutablePair<>("22", 4729744L)));
+    }
+
+    @Test
+    public void getContextNucleotidesAndNewStarts() {
+        List<SubmittedVariant> variants = Arrays.asList(newVariant(2, "", "A"), newVariant(1, "", "CA"),
+                                                        newVariant(2, "GC", ""), newVariant(1, "TG", ""),
+                                                        newVariant(60000, "", "T"));
+        List<ImmutableTriple<Long, String, String>> expected = new ArrayList<>();
+        for (SubmittedVariant variant : variants) {
+            expected.add(reader.getContextNucleotideAndNewStart(variant.getContig(), variant.getStart(),
+                                                                variant.getReferenceAllele(),
+                                                                variant.getAlternateAllele()));
+        }
+        assertEquals(expected, reader.getContextNucleotidesAndNewStarts(variants));
+    }
+
+    private SubmittedVariant newVariant(long start, String reference, String alternate) {
+        return new SubmittedVariant("assembly", 9031, "project", "22", start, reference, alternate, null);
+    }
+
+    @Test
+    public void windowIsDisabledByDefault() throws Exception {
+        FastaSequenceReader fastaSequenceReader = getFastaSequenceReader("fastaWithNoDictionary.fa");
+        fastaSequenceReader.getSequence("22", 1, 1);
+        fastaSequenceReader.getSequence("22", 2, 2);
+
+        assertEquals(0, fastaSequenceReader.getWindowHits());
+        assertEquals(0, fastaSequenceReader.getWindowMisses());
+        fastaSequenceReader.close();
+    }
+
+    @Test
+    public void singleBasesAreReadFromTheWindow() throws Exception {
+        Path fasta = copyFasta("fastaWithNoDictionary.fa");
+        FastaSequenceReader readerWithoutWindow = new FastaSequenceReader(fasta);
+        String sequence = readerWithoutWindow.getSequence("22", 1, 540);
+        readerWithoutWindow.close();
+        FastaSequenceReader fastaSequenceReader = new FastaSequenceReader(fasta, false, 100);
+
+        for (long position = 1; position <= 540; position++) {
+            assertEquals(sequence.substring((int) position - 1, (int) position),
+                         fastaSequenceReader.getSequence("22", position, position));
+        }
+        // windows start 1 base before the position that is not found: 1-100, 100-199, 199-298, ..., 496-540
+        assertEquals(6, fastaSequenceReader.getWindowMisses());
+        assertEquals(534, fastaSequenceReader.getWindowHits());
+
+        thrown.expect(PositionOutsideOfContigException.class);
+        fastaSequenceReader.getSequence("22", 541, 541);
+    }
+
+    @Test
+    public void everyContigKeepsItsWindow() throws Exception {
+        Path fasta = temporaryFolder.getRoot().toPath().resolve("twoContigs.fa");
+        Files.write(fasta, Arrays.asList(">A", "ACGTACGTAC", "GTACGTACGT", ">B", "TTTTTGGGGG", "CCCCCAAAAA"));
+        FastaSequenceReader fastaSequenceReader = new FastaSequenceReader(fasta, false, 100);
+
+        StringBuilder basesOfA = new StringBuilder();
+        StringBuilder basesOfB = new StringBuilder();
+        for (long position = 1; position <= 20; position++) {
+            basesOfA.append(fastaSequenceReader.getSequence("A", position, position));
+            basesOfB.append(fastaSequenceReader.getSequence("B", position, position));
+        }
+        assertEquals("ACGTACGTACGTACGTACGT", basesOfA.toString());
+        assertEquals("TTTTTGGGGGCCCCCAAAAA", basesOfB.toString());
+        assertEquals(2, fastaSequenceReader.getWindowMisses());
+        assertEquals(38, fastaSequenceReader.getWindowHits());
+        fastaSequenceReader.close();
+    }
+
+    @Test
+    public void windowIsNotUsedForMemoryMappedFasta() throws Exception {
+        FastaSequenceReader fastaSequenceReader = new FastaSequenceReader(copyFasta("fastaWithNoDictionary.fa"), true,
+                                                                          100);
+        assertEquals("T", fastaSequenceReader.getSequence("22", 1, 1));
+
+        assertEquals(0, fastaSequenceReader.getWindowMisses());
+        fastaSequenceReader.close();
+    }
+
+    @Test
+    public void readFromSeveralThreads() throws Exception {
+        FastaSequenceReader fastaSequenceReader = getFastaSequenceReader("fastaWithNoDictionary.fa");
+        String expectedSequence = fastaSequenceReader.getSequence("22", 1, 540);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            results.add(executorService.submit(() -> {
+                for (long start = 1; start <= 540; start++) {
+                    long end = Math.min(540, start + 70);
+                    String expected = expectedSequence.substring((int) start - 1, (int) end);
+                    if (!expected.equals(fastaSequenceReader.getSequence("22", start, end))) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        executorService.shutdown();
+        fastaSequenceReader.close();
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
+import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
+import uk.ac.ebi.eva.accession.core.exceptions.PositionOutsideOfContigException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FastaSynonymSequenceReaderTest {
+
+    private static final String FASTA_FILENAME = "fastaWithNoDictionary.fa";
+
+    private static final String SEQUENCE_NAME = "22";
+
+    private static final String GENBANK = "CM000115.4";
+
+    private static final String NON_IDENTICAL_GENBANK = "CM000116.4";
+
+    private static final String NON_IDENTICAL_REFSEQ = "NC_006110.4";
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FastaSynonymSequenceReader reader;
+
+    @Before
+    public void setUp() throws Exception {
+        Path fasta = temporaryFolder.getRoot().toPath().resolve(FASTA_FILENAME);
+        Files.copy(Paths.get(FastaSynonymSequenceReaderTest.class.getResource(
+                "/input-files/fasta/" + FASTA_FILENAME).toURI()), fasta);
+        ContigMapping contigMapping = new ContigMapping(Arrays.asList(
+                new ContigSynonyms(SEQUENCE_NAME, "assembled-molecule", SEQUENCE_NAME, GENBANK, "NC_006109.4",
+                                   "chr22", true),
+                new ContigSynonyms("23", "assembled-molecule", "23", NON_IDENTICAL_GENBANK, NON_IDENTICAL_REFSEQ,
+                                   "chr23", false)));
+        reader = new FastaSynonymSequenceReader(contigMapping, fasta);
+    }
+
+    @Test
+    public void getSequenceUsingSynonym() {
+        // this sequence is split between three lines in the FASTA file
+        String expectedSequence = "CAGCCGCAGTCCGGACAGCGCATGCGCCAGCCGCGAGACCGCACAGCGCATGCGCCAGCGCGAGTGACAGCG";
+        assertEquals(expectedSequence, reader.getSequence(GENBANK, 174, 245));
+        assertEquals(expectedSequence, reader.getSequence("chr22", 174, 245));
+        assertEquals(expectedSequence, reader.getSequence(SEQUENCE_NAME, 174, 245));
+        assertTrue(reader.doesContigExist(GENBANK));
+    }
+
+    @Test
+    public void nonIdenticalContigNotInFasta() {
+        assertFalse(reader.doesContigExist(NON_IDENTICAL_GENBANK));
+        thrown.expect(IllegalArgumentException.class);
+        reader.getSequence(NON_IDENTICAL_GENBANK, 1, 1);
+    }
+
+    @Test
+    public void contigNotInAssemblyReport() {
+        thrown.expect(IllegalArgumentException.class);
+        reader.getSequence("CM000117.4", 1, 1);
+    }
+
+    @Test
+    public void coordinatesGreaterThanEndOfChromosomeAreNotAllowed() {
+        assertEquals("A", reader.getSequence(GENBANK, 540, 540));
+        thrown.expect(PositionOutsideOfContigException.class);
+        reader.getSequence(GENBANK, 535, 541);
+    }
+
+    @Test
+    public void onlyPositiveCoordinatesAreAllowed() {
+        thrown.expect(IllegalArgumentException.class);
+        reader.getSequence(GENBANK, 0, 1);
+    }
+}
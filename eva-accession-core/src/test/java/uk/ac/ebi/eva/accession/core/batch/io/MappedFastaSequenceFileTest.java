@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MappedFastaSequenceFileTest {
+
+    private static final String CONTIG = "22";
+
+    private static final String MIXED_CASE_FASTA_CONTIG = "NW_006738765.1";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void getSequenceSplitInSeveralLines() throws Exception {
+        MappedFastaSequenceFile mappedFastaFile = new MappedFastaSequenceFile(getFasta("fastaWithNoDictionary.fa"));
+
+        assertEquals("CAGCCGCAGTCCGGACAGCGCATGCGCCAGCCGCGAGACCGCACAGCGCATGCGCCAGCGCGAGTGACAGCG",
+                     mappedFastaFile.getSubsequence(CONTIG, 174, 245));
+    }
+
+    @Test
+    public void getFirstAndLastBases() throws Exception {
+        MappedFastaSequenceFile mappedFastaFile = new MappedFastaSequenceFile(getFasta("fastaWithNoDictionary.fa"));
+
+        assertEquals('T', mappedFastaFile.getBase(CONTIG, 1));
+        assertEquals(540, mappedFastaFile.getSequenceLength(CONTIG));
+        assertEquals(mappedFastaFile.getSubsequence(CONTIG, 540, 540).charAt(0),
+                     (char) mappedFastaFile.getBase(CONTIG, 540));
+    }
+
+    @Test
+    public void sameSequencesAsHtsjdk() throws Exception {
+        Path fasta = getFasta("fastaWithNoDictionary.fa");
+        FastaSequenceReader htsjdkReader = new FastaSequenceReader(fasta);
+        MappedFastaSequenceFile mappedFastaFile = new MappedFastaSequenceFile(fasta);
+
+        for (long start = 1; start <= 540; start += 7) {
+            for (long end = start; end <= Math.min(540, start + 130); end += 13) {
+                assertEquals(htsjdkReader.getSequence(CONTIG, start, end),
+                             mappedFastaFile.getSubsequence(CONTIG, start, end));
+            }
+        }
+        htsjdkReader.close();
+    }
+
+    @Test
+    public void keepSoftMasking() throws Exception {
+        FastaSequenceReader reader = new FastaSequenceReader(getFasta("fastaWithSoftMasking.fa"), true);
+
+        assertEquals("g", reader.getSequence(MIXED_CASE_FASTA_CONTIG, 1, 1));
+        assertEquals("G", reader.getSequenceToUpperCase(MIXED_CASE_FASTA_CONTIG, 1, 1));
+        reader.close();
+    }
+
+    @Test
+    public void missingContig() throws Exception {
+        MappedFastaSequenceFile mappedFastaFile = new MappedFastaSequenceFile(getFasta("fastaWithNoDictionary.fa"));
+
+        assertTrue(mappedFastaFile.hasSequence(CONTIG));
+        assertFalse(mappedFastaFile.hasSequence("23"));
+        assertEquals(-1, mappedFastaFile.getSequenceLength("23"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void coordinatesGreaterThanEndOfChromosomeAreNotAllowed() throws Exception {
+        MappedFastaSequenceFile mappedFastaFile = new MappedFastaSequenceFile(getFasta("fastaWithNoDictionary.fa"));
+        mappedFastaFile.getSubsequence(CONTIG, 535, 545);
+    }
+
+    private Path getFasta(String fastaFilename) throws IOException, URISyntaxException {
+        Path folder = temporaryFolder.getRoot().toPath();
+        for (String filename : new String[]{fastaFilename, fastaFilename + ".fai"}) {
+            Path resource = Paths.get(
+                    MappedFastaSequenceFileTest.class.getResource("/input-files/fasta/").toURI()).resolve(filename);
+            if (Files.exists(resource)) {
+                Files.copy(resource, folder.resolve(filename));
+            }
+        }
+        return folder.resolve(fastaFilename);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.ampt2d.commons.accession.core.models.EventType;
+
+import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantInactiveEntity;
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantOperationEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.commons.core.models.VariantType.SNV;
+
+public class MergeOperationBuilderTest {
+
+    private static final String HASH_1 = "hash1";
+
+    private static final String HASH_2 = "hash2";
+
+    private static final Long ACCESSION_1 = 1L;
+
+    private static final Long ACCESSION_2 = 2L;
+
+    private static final Long ACCESSION_3 = 3L;
+
+    private static final Long ACCESSION_4 = 4L;
+
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    private MergeOperationBuilder<DbsnpClusteredVariantEntity, DbsnpClusteredVariantOperationEntity> builder;
+
+    @Before
+    public void setUp() {
+        builder = new MergeOperationBuilder<>(accessions -> {
+            throw new AssertionError("Duplicates within a chunk shouldn't query the operations");
+        }, hashes -> {
+            throw new AssertionError("Duplicates within a chunk shouldn't query the variants");
+        }, this::buildMergeOperation);
+    }
+
+    private DbsnpClusteredVariantOperationEntity buildMergeOperation(DbsnpClusteredVariantEntity origin,
+                                                                     DbsnpClusteredVariantEntity mergedInto) {
+        DbsnpClusteredVariantOperationEntity operation = new DbsnpClusteredVariantOperationEntity();
+        operation.fill(EventType.MERGED, origin.getAccession(), mergedInto.getAccession(), "Merged",
+                       Collections.singletonList(new DbsnpClusteredVariantInactiveEntity(origin)));
+        return operation;
+    }
+
+    private DbsnpClusteredVariantEntity entity(Long accession, String hash) {
+        return new DbsnpClusteredVariantEntity(accession, hash,
+                                               new ClusteredVariant("assembly", 3880, "contig", 100, SNV, false,
+                                                                    null));
+    }
+
+    @Test
+    public void keepFirstVariantOfEachHash() {
+        DbsnpClusteredVariantEntity first = entity(ACCESSION_1, HASH_1);
+        DbsnpClusteredVariantEntity other = entity(ACCESSION_2, HASH_2);
+        List<DbsnpClusteredVariantEntity> variants = Arrays.asList(first, entity(ACCESSION_3, HASH_1), other,
+                                                                   entity(ACCESSION_1, HASH_1));
+
+        assertEquals(Arrays.asList(first, other), builder.removeDuplicatedHashes(variants));
+    }
+
+    @Test
+    public void mergeDuplicatedHashesIntoFirstVariant() {
+        List<DbsnpClusteredVariantEntity> variants = Arrays.asList(entity(ACCESSION_1, HASH_1),
+                                                                   entity(ACCESSION_2, HASH_2),
+                                                                   entity(ACCESSION_3, HASH_1),
+                                                                   entity(ACCESSION_3, HASH_1),
+                                                                   entity(ACCESSION_1, HASH_1));
+
+        List<DbsnpClusteredVariantOperationEntity> operations = builder.buildMergeOperationsForDuplicatedHashes(
+                variants);
+
+        assertEquals(1, operations.size());
+        assertEquals(ACCESSION_3, operations.get(0).getAccession());
+        assertEquals(ACCESSION_1, operations.get(0).getMergedInto());
+        assertEquals(HASH_1, operations.get(0).getInactiveObjects().get(0).getHashedMessage());
+    }
+
+    @Test
+    public void noMergesWithoutDuplicatedHashes() {
+        List<DbsnpClusteredVariantEntity> variants = Arrays.asList(entity(ACCESSION_1, HASH_1),
+                                                                   entity(ACCESSION_2, HASH_2));
+
+        assertTrue(builder.buildMergeOperationsForDuplicatedHashes(variants).isEmpty());
+        assertEquals(variants, builder.removeDuplicatedHashes(variants));
+    }
+
+    @Test
+    public void mergesIntoStoredDocumentReplaceMergesWithinChunk() {
+        List<DbsnpClusteredVariantEntity> variants = Arrays.asList(entity(ACCESSION_1, HASH_1),
+                                                                   entity(ACCESSION_2, HASH_2),
+                                                                   entity(ACCESSION_3, HASH_1),
+                                                                   entity(ACCESSION_3, HASH_2));
+        List<DbsnpClusteredVariantOperationEntity> mergesWithinChunk =
+                builder.buildMergeOperationsForDuplicatedHashes(variants);
+        MergeOperationBuilder<DbsnpClusteredVariantEntity, DbsnpClusteredVariantOperationEntity> builderWithDatabase =
+                databaseBuilder(Collections.singletonList(entity(ACCESSION_4, HASH_1)), Collections.emptyList());
+
+        List<DbsnpClusteredVariantOperationEntity> operations = builderWithDatabase.buildMergeOperationsFromException(
+                variants, mergesWithinChunk, duplicateKeyException(HASH_1));
+
+        // the merge of ACCESSION_3 into ACCESSION_1 within the chunk is replaced by merges into the stored document
+        assertEquals(new HashSet<>(Arrays.asList(merge(ACCESSION_3, ACCESSION_2, HASH_2),
+                                                 merge(ACCESSION_1, ACCESSION_4, HASH_1),
+                                                 merge(ACCESSION_3, ACCESSION_4, HASH_1))),
+                     describe(operations));
+        assertEquals(3, operations.size());
+    }
+
+    @Test
+    public void alreadyMergedAccessionsAreSkipped() {
+        DbsnpClusteredVariantEntity stored = entity(ACCESSION_4, HASH_1);
+        List<DbsnpClusteredVariantOperationEntity> storedOperations = Collections.singletonList(
+                buildMergeOperation(entity(ACCESSION_1, HASH_1), stored));
+        List<DbsnpClusteredVariantEntity> variants = Arrays.asList(entity(ACCESSION_1, HASH_1),
+                                                                   entity(ACCESSION_3, HASH_1),
+                                                                   entity(ACCESSION_4, HASH_1));
+        List<DbsnpClusteredVariantOperationEntity> mergesWithinChunk =
+                builder.buildMergeOperationsForDuplicatedHashes(variants);
+        MergeOperationBuilder<DbsnpClusteredVariantEntity, DbsnpClusteredVariantOperationEntity> builderWithDatabase =
+                databaseBuilder(Collections.singletonList(stored), storedOperations);
+
+        List<DbsnpClusteredVariantOperationEntity> operations = builderWithDatabase.buildMergeOperationsFromException(
+                variants, mergesWithinChunk, duplicateKeyException(HASH_1));
+
+        assertEquals(1, operations.size());
+        assertEquals(Collections.singleton(merge(ACCESSION_3, ACCESSION_4, HASH_1)), describe(operations));
+    }
+
+    @Test
+    public void mergesWithinChunkAreKeptWithoutDuplicateKeyErrors() {
+        List<DbsnpClusteredVariantEntity> variants = Arrays.asList(entity(ACCESSION_1, HASH_1),
+                                                                   entity(ACCESSION_3, HASH_1));
+        List<DbsnpClusteredVariantOperationEntity> mergesWithinChunk =
+                builder.buildMergeOperationsForDuplicatedHashes(variants);
+
+        List<DbsnpClusteredVariantOperationEntity> operations = builder.buildMergeOperationsFromException(
+                variants, mergesWithinChunk, duplicateKeyException());
+
+        assertEquals(mergesWithinChunk, operations);
+    }
+
+    private MergeOperationBuilder<DbsnpClusteredVariantEntity, DbsnpClusteredVariantOperationEntity> databaseBuilder(
+            List<DbsnpClusteredVariantEntity> storedVariants,
+            List<DbsnpClusteredVariantOperationEntity> storedOperations) {
+        return new MergeOperationBuilder<>(
+                accessions -> storedOperations.stream()
+                                              .filter(operation -> accessions.contains(operation.getAccession()))
+                                              .collect(Collectors.toList()),
+                hashes -> storedVariants.stream()
+                                        .filter(variant -> hashes.contains(variant.getHashedMessage()))
+                                        .collect(Collectors.toList()),
+                this::buildMergeOperation);
+    }
+
+    private MongoBulkWriteException duplicateKeyException(String... hashes) {
+        List<BulkWriteError> errors = new ArrayList<>();
+        for (int i = 0; i < hashes.length; i++) {
+            String message = "E11000 duplicate key error collection: test.dbsnpClusteredVariantEntity index: _id_ "
+                    + "dup key: { : \"" + hashes[i] + "\" }";
+            errors.add(new BulkWriteError(DUPLICATE_KEY_ERROR_CODE, message, new BsonDocument(), i));
+        }
+        return new MongoBulkWriteException(BulkWriteResult.unacknowledged(), errors, null, new ServerAddress());
+    }
+
+    private String merge(Long accession, Long mergedInto, String hash) {
+        return accession + "->" + mergedInto + ":" + hash;
+    }
+
+    private Set<String> describe(List<DbsnpClusteredVariantOperationEntity> operations) {
+        return operations.stream()
+                         .map(operation -> merge(operation.getAccession(), operation.getMergedInto(),
+                                                 operation.getInactiveObjects().get(0).getHashedMessage()))
+                         .collect(Collectors.toSet());
+    }
+}
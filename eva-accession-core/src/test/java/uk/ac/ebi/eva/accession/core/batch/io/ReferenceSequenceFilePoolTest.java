@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.batch.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReferenceSequenceFilePoolTest {
+
+    private static final String FIRST_BASES = "TGCGCCAGCG";
+
+    private static final int MAX_HANDLES = 2;
+
+    private ReferenceSequenceFilePool pool;
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Before
+    public void setUp() throws Exception {
+        Path fasta = Paths.get(ReferenceSequenceFilePoolTest.class.getResource(
+                "/input-files/fasta/fastaWithNoDictionary.fa").toURI());
+        pool = new ReferenceSequenceFilePool(fasta, MAX_HANDLES);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.close();
+    }
+
+    @Test
+    public void handlesAreReusedByShortLivedThreads() throws Exception {
+        List<String> sequences = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Thread thread = new Thread(() -> {
+                String sequence = pool.getSubsequenceAt("22", 1, 10);
+                synchronized (sequences) {
+                    sequences.add(sequence);
+                }
+            });
+            thread.start();
+            thread.join();
+        }
+
+        assertEquals(10, sequences.size());
+        sequences.forEach(sequence -> assertEquals(FIRST_BASES, sequence));
+        assertEquals(1, pool.getNumberOfOpenedHandles());
+    }
+
+    @Test
+    public void moreThreadsThanHandlesShareThem() throws Exception {
+        ExecutorService executorService = Executors.newCachedThreadPool();
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            results.add(executorService.submit(() -> {
+                for (int read = 0; read < 100; read++) {
+                    if (!FIRST_BASES.equals(pool.getSubsequenceAt("22", 1, 10))) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertTrue(pool.getNumberOfOpenedHandles() <= MAX_HANDLES);
+    }
+
+    @Test
+    public void closedPoolCanNotBeRead() throws Exception {
+        pool.close();
+
+        thrown.expect(IllegalStateException.class);
+        pool.getSubsequenceAt("22", 1, 10);
+    }
+
+    @Test
+    public void maxHandlesMustBePositive() {
+        thrown.expect(IllegalArgumentException.class);
+        new ReferenceSequenceFilePool(Paths.get("unused.fa"), 0);
+    }
+}
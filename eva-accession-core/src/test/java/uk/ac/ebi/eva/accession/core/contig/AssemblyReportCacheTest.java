@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.contig;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.ac.ebi.eva.accession.core.batch.io.AssemblyReportReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class AssemblyReportCacheTest {
+
+    private static final String ASSEMBLY_REPORT =
+            "/input-files/assembly-report/GCA_000001635.8_Mus_musculus-grcm38.p6_assembly_report.txt";
+
+    private static final String EXTRA_ROW = "extra_chr\tunlocalized-scaffold\t1\tChromosome\tGL_extra.1\t=\t"
+            + "NT_extra.1\tC57BL/6J\t1000\tchr1_extra\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path report;
+
+    private String reportUrl;
+
+    private Path cacheDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        report = temporaryFolder.getRoot().toPath().resolve("assembly_report.txt");
+        Files.copy(Paths.get(AssemblyReportCacheTest.class.getResource(ASSEMBLY_REPORT).toURI()), report);
+        reportUrl = report.toUri().toString();
+        cacheDirectory = temporaryFolder.getRoot().toPath().resolve("cache");
+    }
+
+    @Test
+    public void sameRowsAsAssemblyReport() throws Exception {
+        List<ContigSynonyms> expectedRows = readReport();
+
+        assertEquals(expectedRows, new AssemblyReportCache(cacheDirectory, false).getContigSynonyms(reportUrl));
+        assertEquals(expectedRows, new AssemblyReportCache(cacheDirectory, false).getContigSynonyms(reportUrl));
+        assertEquals(expectedRows, new AssemblyReportCache(null, false).getContigSynonyms(reportUrl));
+    }
+
+    @Test
+    public void offlineCacheDoesNotReadReport() throws Exception {
+        List<ContigSynonyms> expectedRows = readReport();
+        new AssemblyReportCache(cacheDirectory, false).getContigSynonyms(reportUrl);
+        Files.delete(report);
+
+        assertEquals(expectedRows, new AssemblyReportCache(cacheDirectory, true).getContigSynonyms(reportUrl));
+    }
+
+    @Test
+    public void modifiedReportIsCachedAgain() throws Exception {
+        List<ContigSynonyms> originalRows = new AssemblyReportCache(cacheDirectory, false).getContigSynonyms(reportUrl);
+        Files.write(report, EXTRA_ROW.getBytes(), StandardOpenOption.APPEND);
+
+        List<ContigSynonyms> modifiedRows = new AssemblyReportCache(cacheDirectory, false).getContigSynonyms(reportUrl);
+        assertNotEquals(originalRows, modifiedRows);
+        assertEquals(readReport(), modifiedRows);
+        assertEquals(modifiedRows, new AssemblyReportCache(cacheDirectory, true).getContigSynonyms(reportUrl));
+    }
+
+    @Test
+    public void cachedRowsBuildSameContigMapping() throws Exception {
+        new AssemblyReportCache(cacheDirectory, false).getContigMapping(reportUrl);
+        ContigMapping cachedMapping = new AssemblyReportCache(cacheDirectory, true).getContigMapping(reportUrl);
+        ContigMapping contigMapping = new ContigMapping(reportUrl);
+
+        for (String contig : contigMapping.getContigNames()) {
+            assertEquals(contigMapping.getContigSynonyms(contig), cachedMapping.getContigSynonyms(contig));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void offlineCacheWithoutReport() throws Exception {
+        new AssemblyReportCache(cacheDirectory, true).getContigSynonyms(reportUrl);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void offlineWithoutCacheDirectory() {
+        new AssemblyReportCache(null, true);
+    }
+
+    private List<ContigSynonyms> readReport() throws Exception {
+        AssemblyReportReader reader = new AssemblyReportReader(reportUrl);
+        List<ContigSynonyms> rows = new ArrayList<>();
+        ContigSynonyms row;
+        while ((row = reader.read()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
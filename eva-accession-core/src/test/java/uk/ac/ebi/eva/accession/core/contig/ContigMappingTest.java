@@ -18,10 +18,14 @@ package uk.ac.ebi.eva.accession.core.contig;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 public class ContigMappingTest {
 
@@ -59,6 +63,8 @@ public class ContigMappingTest {
 
     private static final String ASSEMBLED_MOLECULE_ROLE = "assembled-molecule";
 
+    private static final String UNKNOWN_CONTIG = "unknown_contig";
+
     private ContigMapping contigMapping;
 
     private static final int TOTAL_ROWS = 26;
@@ -142,6 +148,21 @@ public class ContigMappingTest {
         assertEquals(TOTAL_ROWS - MISSING_UCSC_ROWS, contigMapping.ucscToSynonyms.size());
     }
 
+    @Test
+    public void genbankReplacementsMatchReplacementChecks() {
+        Map<String, String> genbankReplacements = contigMapping.getGenbankReplacements();
+
+        assertEquals(GENBANK_CONTIG, genbankReplacements.get(SEQNAME_CONTIG));
+        assertEquals(GENBANK_CONTIG, genbankReplacements.get(REFSEQ_CONTIG));
+        assertEquals(GENBANK_CONTIG, genbankReplacements.get(UCSC_CONTIG));
+        assertFalse(genbankReplacements.containsKey(REFSEQ_WITHOUT_SYNONYM));
+        for (String contig : contigMapping.getContigNames()) {
+            ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contig);
+            assertEquals(contigMapping.isGenbankReplacementPossible(contig, contigSynonyms, new StringBuilder()),
+                         genbankReplacements.containsKey(contig));
+        }
+    }
+
     // get SEQNAME
 
     @Test
@@ -263,4 +284,82 @@ public class ContigMappingTest {
         assertEquals(UCSC_CONTIG, contigMapping.getContigSynonyms(UCSC_CONTIG).getUcsc());
     }
 
+    // contigs named the same in several naming conventions
+
+    @Test
+    public void nameInSeveralConventionsIsResolvedWithTheConventionPriority() {
+        ContigSynonyms row1 = new ContigSynonyms("a", ASSEMBLED_MOLECULE_ROLE, "1", "CM1.1", "NC_1.1", "b", false);
+        ContigSynonyms row2 = new ContigSynonyms("b", ASSEMBLED_MOLECULE_ROLE, "2", "CM2.1", "NC_2.1", "chr2", false);
+        ContigSynonyms row3 = new ContigSynonyms("c", ASSEMBLED_MOLECULE_ROLE, "a", "CM3.1", "NC_3.1", "chr3", false);
+        ContigSynonyms row4 = new ContigSynonyms("d", ASSEMBLED_MOLECULE_ROLE, "4", "c", "NC_4.1", "chr4", false);
+        ContigSynonyms row5 = new ContigSynonyms("e", ASSEMBLED_MOLECULE_ROLE, "5", "CM5.1", "CM1.1", "chr5", false);
+        ContigMapping mapping = new ContigMapping(Arrays.asList(row1, row2, row3, row4, row5));
+
+        // sequence name over UCSC
+        assertSame(row2, mapping.getContigSynonyms("b"));
+        assertEquals("CM2.1", mapping.getContigSynonym("b", ContigNaming.INSDC));
+        // assigned molecule over sequence name
+        assertSame(row3, mapping.getContigSynonyms("a"));
+        assertEquals("CM3.1", mapping.getContigSynonym("a", ContigNaming.INSDC));
+        // GenBank over sequence name
+        assertSame(row4, mapping.getContigSynonyms("c"));
+        assertEquals("NC_4.1", mapping.getContigSynonym("c", ContigNaming.REFSEQ));
+        // RefSeq over GenBank
+        assertSame(row5, mapping.getContigSynonyms("CM1.1"));
+        assertEquals("e", mapping.getContigSynonym("CM1.1", ContigNaming.SEQUENCE_NAME));
+    }
+
+    @Test
+    public void contigSynonymsFollowConventionPriority() {
+        for (String contig : contigMapping.getContigNames()) {
+            assertSame(getContigSynonymsByConventionPriority(contig), contigMapping.getContigSynonyms(contig));
+        }
+    }
+
+    private ContigSynonyms getContigSynonymsByConventionPriority(String contig) {
+        for (Map<String, ContigSynonyms> conventionMap : Arrays.asList(contigMapping.refSeqToSynonyms,
+                                                                       contigMapping.genBankToSynonyms,
+                                                                       contigMapping.assignedMoleculeToSynonyms,
+                                                                       contigMapping.sequenceNameToSynonyms,
+                                                                       contigMapping.ucscToSynonyms)) {
+            if (conventionMap.containsKey(contig)) {
+                return conventionMap.get(contig);
+            }
+        }
+        return null;
+    }
+
+    // translation into every naming convention
+
+    @Test
+    public void translateIntoEveryNaming() {
+        assertEquals(SEQNAME_CONTIG, contigMapping.getContigSynonym(GENBANK_CONTIG, ContigNaming.SEQUENCE_NAME));
+        assertEquals(ASSIGNED_MOLECULE_CONTIG,
+                     contigMapping.getContigSynonym(GENBANK_CONTIG, ContigNaming.ASSIGNED_MOLECULE));
+        assertEquals(GENBANK_CONTIG, contigMapping.getContigSynonym(UCSC_CONTIG, ContigNaming.INSDC));
+        assertEquals(REFSEQ_CONTIG, contigMapping.getContigSynonym(GENBANK_CONTIG, ContigNaming.REFSEQ));
+        assertEquals(UCSC_CONTIG, contigMapping.getContigSynonym(REFSEQ_CONTIG, ContigNaming.UCSC));
+        assertEquals(SEQNAME_CONTIG, contigMapping.getContigSynonym(SEQNAME_CONTIG, ContigNaming.NO_REPLACEMENT));
+        assertNull(contigMapping.getContigSynonym(SEQNAME_CONTIG_UNAVAILABLE_UCSC, ContigNaming.UCSC));
+    }
+
+    @Test
+    public void translationMatchesTheSynonyms() {
+        for (String contig : contigMapping.getContigNames()) {
+            ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contig);
+            for (ContigNaming contigNaming : ContigNaming.values()) {
+                assertEquals(contigMapping.getContigSynonym(contig, contigSynonyms, contigNaming),
+                             contigMapping.getContigSynonym(contig, contigNaming));
+            }
+        }
+    }
+
+    @Test
+    public void unknownContigIsNotTranslated() {
+        assertNull(contigMapping.getContigSynonyms(UNKNOWN_CONTIG));
+        for (ContigNaming contigNaming : ContigNaming.values()) {
+            assertNull(contigMapping.getContigSynonym(UNKNOWN_CONTIG, contigNaming));
+        }
+    }
+
 }
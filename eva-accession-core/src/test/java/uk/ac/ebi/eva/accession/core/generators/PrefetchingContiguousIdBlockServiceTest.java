@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.generators;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.ampt2d.commons.accession.persistence.jpa.monotonic.entities.ContiguousIdBlock;
+import uk.ac.ebi.ampt2d.commons.accession.persistence.jpa.monotonic.service.BlockParameters;
+import uk.ac.ebi.ampt2d.commons.accession.persistence.jpa.monotonic.service.ContiguousIdBlockService;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PrefetchingContiguousIdBlockServiceTest {
+
+    private static final String CATEGORY_ID = "ss";
+
+    private static final String INSTANCE_ID = "test-instance";
+
+    private static final long BLOCK_SIZE = 100;
+
+    private ContiguousIdBlockService blockService;
+
+    private ContiguousIdBlock firstBlock;
+
+    private ContiguousIdBlock secondBlock;
+
+    private PrefetchingContiguousIdBlockService prefetchingBlockService;
+
+    @Before
+    public void setUp() {
+        firstBlock = block(1000);
+        secondBlock = block(1000 + BLOCK_SIZE);
+        blockService = mock(ContiguousIdBlockService.class);
+        when(blockService.reserveNewBlock(CATEGORY_ID, INSTANCE_ID)).thenReturn(firstBlock, secondBlock);
+        // the reservations in advance run synchronously, so that they have finished when save returns
+        prefetchingBlockService = new PrefetchingContiguousIdBlockService(blockService, 0.5, Runnable::run);
+    }
+
+    @After
+    public void tearDown() {
+        prefetchingBlockService.shutdown();
+    }
+
+    private ContiguousIdBlock block(long firstValue) {
+        ContiguousIdBlock block = mock(ContiguousIdBlock.class);
+        when(block.getCategoryId()).thenReturn(CATEGORY_ID);
+        when(block.getApplicationInstanceId()).thenReturn(INSTANCE_ID);
+        when(block.getFirstValue()).thenReturn(firstValue);
+        when(block.getLastValue()).thenReturn(firstValue + BLOCK_SIZE - 1);
+        when(block.getLastCommitted()).thenReturn(firstValue - 1);
+        return block;
+    }
+
+    private void commit(ContiguousIdBlock block, long committedAccessions) {
+        when(block.getLastCommitted()).thenReturn(block.getFirstValue() + committedAccessions - 1);
+        prefetchingBlockService.save(Collections.singletonList(block));
+    }
+
+    @Test
+    public void nextBlockIsNotReservedBelowThreshold() {
+        assertSame(firstBlock, prefetchingBlockService.reserveNewBlock(CATEGORY_ID, INSTANCE_ID));
+        commit(firstBlock, BLOCK_SIZE / 2 - 1);
+
+        verify(blockService, times(1)).reserveNewBlock(CATEGORY_ID, INSTANCE_ID);
+    }
+
+    @Test
+    public void nextBlockIsReservedInAdvanceAboveThreshold() {
+        assertSame(firstBlock, prefetchingBlockService.reserveNewBlock(CATEGORY_ID, INSTANCE_ID));
+        commit(firstBlock, BLOCK_SIZE / 2);
+        verify(blockService, times(2)).reserveNewBlock(CATEGORY_ID, INSTANCE_ID);
+
+        commit(firstBlock, BLOCK_SIZE);
+        assertSame(secondBlock, prefetchingBlockService.reserveNewBlock(CATEGORY_ID, INSTANCE_ID));
+        verify(blockService, times(2)).reserveNewBlock(CATEGORY_ID, INSTANCE_ID);
+        verify(blockService, times(2)).save(Collections.singletonList(firstBlock));
+    }
+
+    @Test
+    public void nextBlockIsReservedWhenNeededIfTheReservationInAdvanceFailed() {
+        when(blockService.reserveNewBlock(CATEGORY_ID, INSTANCE_ID))
+                .thenReturn(firstBlock)
+                .thenThrow(new IllegalStateException("Reservation failed"))
+                .thenReturn(secondBlock);
+
+        assertSame(firstBlock, prefetchingBlockService.reserveNewBlock(CATEGORY_ID, INSTANCE_ID));
+        commit(firstBlock, BLOCK_SIZE);
+        verify(blockService, times(2)).reserveNewBlock(CATEGORY_ID, INSTANCE_ID);
+
+        assertSame(secondBlock, prefetchingBlockService.reserveNewBlock(CATEGORY_ID, INSTANCE_ID));
+    }
+
+    @Test
+    public void readsAreDelegatedToTheWrappedService() {
+        BlockParameters blockParameters = mock(BlockParameters.class);
+        List<ContiguousIdBlock> uncompletedBlocks = Collections.singletonList(firstBlock);
+        when(blockService.getBlockParameters(CATEGORY_ID)).thenReturn(blockParameters);
+        when(blockService.getUncompletedBlocksByCategoryIdAndApplicationInstanceIdOrderByEndAsc(CATEGORY_ID,
+                                                                                               INSTANCE_ID))
+                .thenReturn(uncompletedBlocks);
+
+        assertSame(blockParameters, prefetchingBlockService.getBlockParameters(CATEGORY_ID));
+        assertSame(uncompletedBlocks,
+                   prefetchingBlockService.getUncompletedBlocksByCategoryIdAndApplicationInstanceIdOrderByEndAsc(
+                           CATEGORY_ID, INSTANCE_ID));
+    }
+
+    @Test
+    public void everyPublicMethodIsOverridden() throws NoSuchMethodException {
+        for (Method method : ContiguousIdBlockService.class.getDeclaredMethods()) {
+            if (Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+                Method override = PrefetchingContiguousIdBlockService.class.getMethod(method.getName(),
+                                                                                      method.getParameterTypes());
+                assertEquals(method.toString(), PrefetchingContiguousIdBlockService.class,
+                             override.getDeclaringClass());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thresholdMustBePositive() {
+        new PrefetchingContiguousIdBlockService(blockService, 0, Runnable::run);
+    }
+}
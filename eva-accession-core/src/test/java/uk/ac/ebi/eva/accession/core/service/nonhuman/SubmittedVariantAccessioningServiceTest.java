@@ -42,6 +42,7 @@ import uk.ac.ebi.ampt2d.commons.accession.core.models.AccessionWrapper;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.EventType;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.GetOrCreateAccessionWrapper;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.IEvent;
+import uk.ac.ebi.ampt2d.commons.accession.generators.monotonic.MonotonicAccessionGenerator;
 import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 
 import uk.ac.ebi.eva.accession.core.configuration.nonhuman.SubmittedVariantAccessioningConfiguration;
@@ -51,7 +52,10 @@ import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp.DbsnpSubmittedVariantAccessioningDatabaseService;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp.DbsnpSubmittedVariantInactiveService;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp.DbsnpSubmittedVariantMonotonicAccessioningService;
+import uk.ac.ebi.eva.accession.core.service.nonhuman.eva.SubmittedVariantAccessioningDatabaseService;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.eva.SubmittedVariantInactiveService;
+import uk.ac.ebi.eva.accession.core.service.nonhuman.eva.SubmittedVariantMonotonicAccessioningService;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
 import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
 import uk.ac.ebi.eva.accession.core.test.configuration.nonhuman.MongoTestConfiguration;
 import uk.ac.ebi.eva.accession.core.test.rule.FixSpringMongoDbRule;
@@ -63,8 +67,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -118,6 +126,12 @@ public class SubmittedVariantAccessioningServiceTest {
     @Autowired
     private DbsnpSubmittedVariantAccessioningDatabaseService dbServiceDbsnp;
 
+    @Autowired
+    private MonotonicAccessionGenerator<ISubmittedVariant> submittedVariantAccessionGenerator;
+
+    @Autowired
+    private SubmittedVariantAccessioningDatabaseService dbService;
+
     @Rule
     public MongoDbRule mongoDbRule = new FixSpringMongoDbRule(
             MongoDbConfigurationBuilder.mongoDb().databaseName("submitted-variants-test").build());
@@ -221,6 +235,43 @@ public class SubmittedVariantAccessioningServiceTest {
         assertEquals(3, submittedVariants.size());
     }
 
+    @UsingDataSet(locations = {"/test-data/submittedVariantEntity.json", "/test-data/dbsnpSubmittedVariantEntity.json"})
+    @Test
+    public void getOrCreateWithConcurrentLookups() throws AccessionCouldNotBeGeneratedException {
+        ExecutorService lookupExecutor = Executors.newSingleThreadExecutor();
+        try {
+            SubmittedVariantAccessioningService concurrentService = new SubmittedVariantAccessioningService(
+                    new SubmittedVariantMonotonicAccessioningService(submittedVariantAccessionGenerator, dbService,
+                                                                     new SubmittedVariantHashingFunction()),
+                    new DbsnpSubmittedVariantMonotonicAccessioningService(dbsnpAccessionGenerator, dbServiceDbsnp,
+                                                                          new SubmittedVariantHashingFunction()),
+                    accessioningMonotonicInitSs, lookupExecutor);
+            List<SubmittedVariant> variants = Arrays.asList(submittedVariant, newSubmittedVariant,
+                                                            dbsnpSubmittedVariant);
+
+            // the variant in EVA, the new variant and the variant in dbSNP
+            Map<String, Long> concurrentAccessions = getAccessionsByHash(concurrentService.getOrCreate(variants));
+            assertEquals(3, concurrentAccessions.size());
+            SubmittedVariantHashingFunction hashingFunction = new SubmittedVariantHashingFunction();
+            assertEquals(ACCESSION, concurrentAccessions.get(hashingFunction.apply(submittedVariant)).longValue());
+            assertEquals(ACCESSION_DBSNP_1,
+                         concurrentAccessions.get(hashingFunction.apply(dbsnpSubmittedVariant)).longValue());
+            assertNotNull(concurrentAccessions.get(hashingFunction.apply(newSubmittedVariant)));
+
+            // the sequential flow finds the variant created by the concurrent one
+            assertEquals(concurrentAccessions, getAccessionsByHash(service.getOrCreate(variants)));
+            assertEquals(concurrentAccessions, getAccessionsByHash(concurrentService.getOrCreate(variants)));
+        } finally {
+            lookupExecutor.shutdown();
+        }
+    }
+
+    private Map<String, Long> getAccessionsByHash(
+            List<GetOrCreateAccessionWrapper<ISubmittedVariant, String, Long>> accessionWrappers) {
+        return accessionWrappers.stream().collect(Collectors.toMap(AccessionWrapper::getHash,
+                                                                   AccessionWrapper::getAccession));
+    }
+
     @UsingDataSet(locations = {"/test-data/dbsnpSubmittedVariantEntity.json"})
     @Test
     public void getOrCreateDbsnpIdenticalVariants() throws AccessionCouldNotBeGeneratedException {
@@ -265,6 +316,20 @@ public class SubmittedVariantAccessioningServiceTest {
         assertEquals(2, accessions.size());
     }
 
+    @UsingDataSet(locations = {"/test-data/submittedVariantEntity.json", "/test-data/dbsnpSubmittedVariantEntity.json"})
+    @Test
+    public void getByHashedMessageInFromBothRepositories() {
+        SubmittedVariantHashingFunction hashingFunction = new SubmittedVariantHashingFunction();
+        List<String> hashes = Stream.of(submittedVariant, newSubmittedVariant, dbsnpSubmittedVariant)
+                                    .map(hashingFunction)
+                                    .collect(Collectors.toList());
+
+        List<AccessionWrapper<ISubmittedVariant, String, Long>> accessions = service.getByHashedMessageIn(hashes);
+
+        assertEquals(new HashSet<>(Arrays.asList(ACCESSION, ACCESSION_DBSNP_1)),
+                     accessions.stream().map(AccessionWrapper::getAccession).collect(Collectors.toSet()));
+    }
+
     @UsingDataSet(locations = {"/test-data/submittedVariantEntity.json", "/test-data/dbsnpSubmittedVariantEntity.json"})
     @Test
     public void getByAccessionsFromBothRepositories()
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DbsnpSubmittedVariantHashFilterTest {
+
+    private static final String ASSEMBLY = "GCA_000001";
+
+    private static final String OTHER_ASSEMBLY = "GCA_000002";
+
+    private static final int NUMBER_OF_HASHES = 1000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final SubmittedVariantHashingFunction hashingFunction = new SubmittedVariantHashingFunction();
+
+    private String hash(String assembly, long start) {
+        return hashingFunction.apply(new SubmittedVariant(assembly, 9606, "project", "contig", start, "A", "T", null));
+    }
+
+    private DbsnpSubmittedVariantHashFilter buildFilter() {
+        DbsnpSubmittedVariantHashFilter filter = DbsnpSubmittedVariantHashFilter.create(ASSEMBLY, NUMBER_OF_HASHES,
+                                                                                        0.01);
+        for (int start = 0; start < NUMBER_OF_HASHES; start++) {
+            filter.add(hash(ASSEMBLY, start));
+        }
+        return filter;
+    }
+
+    @Test
+    public void addedHashesAreAlwaysFound() {
+        DbsnpSubmittedVariantHashFilter filter = buildFilter();
+        for (int start = 0; start < NUMBER_OF_HASHES; start++) {
+            assertTrue(filter.mightContain(ASSEMBLY, hash(ASSEMBLY, start)));
+        }
+    }
+
+    @Test
+    public void mostMissingHashesAreRuledOut() {
+        DbsnpSubmittedVariantHashFilter filter = buildFilter();
+        int falsePositives = 0;
+        for (int start = NUMBER_OF_HASHES; start < 2 * NUMBER_OF_HASHES; start++) {
+            if (filter.mightContain(ASSEMBLY, hash(ASSEMBLY, start))) {
+                falsePositives++;
+            }
+        }
+        assertTrue("Too many false positives: " + falsePositives, falsePositives < NUMBER_OF_HASHES / 20);
+    }
+
+    @Test
+    public void otherAssembliesAreNotRuledOut() {
+        DbsnpSubmittedVariantHashFilter filter = DbsnpSubmittedVariantHashFilter.create(ASSEMBLY, 0, 0.01);
+        assertFalse(filter.mightContain(ASSEMBLY, hash(ASSEMBLY, 100)));
+        assertTrue(filter.mightContain(OTHER_ASSEMBLY, hash(OTHER_ASSEMBLY, 100)));
+    }
+
+    @Test
+    public void hashesThatAreNotDigestsAreNotRuledOut() {
+        DbsnpSubmittedVariantHashFilter filter = DbsnpSubmittedVariantHashFilter.create(ASSEMBLY, 0, 0.01);
+        assertTrue(filter.mightContain(ASSEMBLY, "hash"));
+        assertTrue(filter.mightContain(ASSEMBLY, null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void onlyDigestsCanBeAdded() {
+        DbsnpSubmittedVariantHashFilter.create(ASSEMBLY, 1, 0.01).add("hash");
+    }
+
+    @Test
+    public void writeAndRead() throws IOException {
+        DbsnpSubmittedVariantHashFilter filter = buildFilter();
+        Path path = temporaryFolder.getRoot().toPath().resolve("filter.bin");
+        filter.writeTo(path);
+
+        DbsnpSubmittedVariantHashFilter readFilter = DbsnpSubmittedVariantHashFilter.readFrom(path);
+
+        assertEquals(ASSEMBLY, readFilter.getAssemblyAccession());
+        assertEquals(NUMBER_OF_HASHES, readFilter.getNumberOfHashes());
+        List<String> differences = new ArrayList<>();
+        for (int start = 0; start < 2 * NUMBER_OF_HASHES; start++) {
+            String hash = hash(ASSEMBLY, start);
+            if (filter.mightContain(ASSEMBLY, hash) != readFilter.mightContain(ASSEMBLY, hash)) {
+                differences.add(hash);
+            }
+        }
+        assertTrue(differences.isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void readFileThatIsNotAFilter() throws IOException {
+        Path path = temporaryFolder.newFile("other.bin").toPath();
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        DbsnpSubmittedVariantHashFilter.readFrom(path);
+    }
+}
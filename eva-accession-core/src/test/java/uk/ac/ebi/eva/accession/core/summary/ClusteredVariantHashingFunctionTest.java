@@ -0,0 +1,75 @@
+/*
+ *
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.ebi.eva.accession.core.summary;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
+
+import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
+import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
+import uk.ac.ebi.eva.commons.core.models.VariantType;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ClusteredVariantHashingFunctionTest {
+
+    private static final String ASSEMBLY_ACCESSION = "GCA_000001405.15";
+
+    private static final int TAXONOMY_ACCESSION = 9606;
+
+    private static final String CONTIG = "CM000663.2";
+
+    private ClusteredVariantHashingFunction hashingFunction;
+
+    private Function<IClusteredVariant, String> summaryHashingFunction;
+
+    @Before
+    public void setUp() {
+        hashingFunction = new ClusteredVariantHashingFunction();
+        summaryHashingFunction = new ClusteredVariantSummaryFunction().andThen(new SHA1HashingFunction());
+    }
+
+    @Test
+    public void hashIsIdenticalToSummaryAndSha1HashingFunction() {
+        long[] starts = {0, 1, 9, 10, 123456, 248956422, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+        for (VariantType type : VariantType.values()) {
+            for (long start : starts) {
+                IClusteredVariant variant = new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, CONTIG, start,
+                                                                 type, false, null);
+                assertEquals(variant.toString(), summaryHashingFunction.apply(variant), hashingFunction.apply(variant));
+            }
+        }
+    }
+
+    @Test
+    public void memoizedHashIsDiscardedWhenAnIdentifyingFieldChanges() {
+        ClusteredVariant variant = new ClusteredVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, CONTIG, 100,
+                                                        VariantType.SNV, false, null);
+        String hash = hashingFunction.apply(variant);
+        assertEquals(hash, hashingFunction.apply(variant));
+
+        variant.setType(VariantType.MNV);
+
+        assertNotEquals(hash, hashingFunction.apply(variant));
+        assertEquals(summaryHashingFunction.apply(variant), hashingFunction.apply(variant));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.ebi.eva.accession.core.summary;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
+
+import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
+import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class SubmittedVariantHashingFunctionTest {
+
+    private static final String ASSEMBLY_ACCESSION = "GCA_000001405.15";
+
+    private static final int TAXONOMY_ACCESSION = 9606;
+
+    private static final String PROJECT_ACCESSION = "PRJEB1234";
+
+    private static final String CONTIG = "CM000663.2";
+
+    private static final long START = 123456;
+
+    private SubmittedVariantHashingFunction hashingFunction;
+
+    private Function<ISubmittedVariant, String> summaryHashingFunction;
+
+    @Before
+    public void setUp() {
+        hashingFunction = new SubmittedVariantHashingFunction();
+        summaryHashingFunction = new SubmittedVariantSummaryFunction().andThen(new SHA1HashingFunction());
+    }
+
+    @Test
+    public void hashMatchesSha1OfSummary() {
+        // echo -n "GCA_000001405.15_PRJEB1234_CM000663.2_123456_A_T" | sha1sum | awk '{ print toupper($1) }'
+        ISubmittedVariant variant = new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION,
+                                                         CONTIG, START, "A", "T", null);
+
+        assertEquals("986DAE44CE32179A0F140C4202F1FBA096EB8648", hashingFunction.apply(variant));
+    }
+
+    @Test
+    public void hashIsIdenticalToSummaryAndSha1HashingFunction() {
+        String longAllele = String.join("", Collections.nCopies(1000, "ACGT"));
+        List<ISubmittedVariant> variants = Arrays.asList(
+                new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION, CONTIG, START, "A",
+                                     "T", null),
+                new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION, CONTIG, START, "",
+                                     "TTC", null),
+                new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION, CONTIG, START,
+                                     "AGT", "", null),
+                new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION, CONTIG, 0, "a", "t",
+                                     null),
+                new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION, CONTIG,
+                                     Long.MAX_VALUE, "A", "T", null),
+                new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION, CONTIG, -1, "A", "T",
+                                     null),
+                new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, "Study with spaces, and symbols (1/2)",
+                                     CONTIG, START, "A", "T", null),
+                new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION, CONTIG, START,
+                                     longAllele, "A", null));
+
+        for (ISubmittedVariant variant : variants) {
+            assertEquals(variant.toString(), summaryHashingFunction.apply(variant), hashingFunction.apply(variant));
+        }
+    }
+
+    @Test
+    public void hashIsNotAffectedByPreviousHashes() {
+        ISubmittedVariant shortVariant = new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION,
+                                                              PROJECT_ACCESSION, CONTIG, START, "A", "T", null);
+        ISubmittedVariant longVariant = new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION,
+                                                             PROJECT_ACCESSION, CONTIG, START,
+                                                             String.join("", Collections.nCopies(100, "ACGT")), "",
+                                                             null);
+
+        String shortVariantHash = hashingFunction.apply(shortVariant);
+        hashingFunction.apply(longVariant);
+
+        assertEquals(shortVariantHash, hashingFunction.apply(new SubmittedVariant(shortVariant)));
+    }
+
+    @Test
+    public void hashIsMemoizedInTheVariant() {
+        SubmittedVariant variant = new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION,
+                                                        CONTIG, START, "A", "T", null);
+        AtomicInteger computations = new AtomicInteger();
+        Function<ISubmittedVariant, String> countingFunction = model -> {
+            computations.incrementAndGet();
+            return hashingFunction.apply(new SubmittedVariant(model));
+        };
+
+        String hash = variant.computeHashIfAbsent(countingFunction);
+
+        assertEquals(hash, variant.computeHashIfAbsent(countingFunction));
+        assertEquals(hash, hashingFunction.apply(variant));
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    public void memoizedHashIsDiscardedWhenAnIdentifyingFieldChanges() {
+        SubmittedVariant variant = new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION,
+                                                        CONTIG, START, "A", "T", null);
+        String hash = hashingFunction.apply(variant);
+
+        variant.setAlternateAllele("G");
+
+        assertNotEquals(hash, hashingFunction.apply(variant));
+        assertEquals(summaryHashingFunction.apply(variant), hashingFunction.apply(variant));
+    }
+
+    @Test
+    public void memoizedHashDoesNotAffectEquality() {
+        SubmittedVariant variant = new SubmittedVariant(ASSEMBLY_ACCESSION, TAXONOMY_ACCESSION, PROJECT_ACCESSION,
+                                                        CONTIG, START, "A", "T", null);
+        SubmittedVariant copy = new SubmittedVariant(variant);
+        hashingFunction.apply(variant);
+
+        assertEquals(copy, variant);
+        assertEquals(copy.hashCode(), variant.hashCode());
+    }
+}
@@ -18,16 +18,16 @@ package uk.ac.ebi.eva.accession.dbsnp2.batch.processors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemProcessor;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 
 import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
 import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
 import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
 import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
-import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
@@ -42,43 +42,46 @@ public class ContigToGenbankReplacerProcessor
 
     private ContigMapping contigMapping;
 
+    private Map<String, String> genbankReplacements;
+
     private Set<String> processedContigs;
 
     public ContigToGenbankReplacerProcessor(ContigMapping contigMapping) {
         this.contigMapping = contigMapping;
+        this.genbankReplacements = contigMapping.getGenbankReplacements();
         this.processedContigs = new HashSet<>();
     }
 
     @Override
     public DbsnpClusteredVariantEntity process(DbsnpClusteredVariantEntity variant) throws IllegalStateException {
         String contigName = variant.getContig();
-        ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contigName);
-        boolean contigPresentInAssemblyReport = contigSynonyms != null; 
-        if (!contigPresentInAssemblyReport) {
-            throw new IllegalStateException(
-                    "Contig '" + contigName + "' was not found in the assembly report! "
-                            + "Is the assembly accession '" + variant.getAssemblyAccession() + "' correct?");
-        }
-        StringBuilder message = new StringBuilder();
-        if (contigMapping.isGenbankReplacementPossible(contigName, contigSynonyms, message)) {
+        String genbank = genbankReplacements.get(contigName);
+        if (genbank != null) {
             ClusteredVariant newVariant = new ClusteredVariant(variant.getAssemblyAccession(),
                                                                variant.getTaxonomyAccession(),
-                                                               contigSynonyms.getGenBank(),
+                                                               genbank,
                                                                variant.getStart(),
                                                                variant.getType(),
                                                                variant.isValidated(),
                                                                variant.getCreatedDate());
 
-            Function<IClusteredVariant, String> hashingFunction =
-                    new ClusteredVariantSummaryFunction().andThen(new SHA1HashingFunction());
+            Function<IClusteredVariant, String> hashingFunction = new ClusteredVariantHashingFunction();
             return new DbsnpClusteredVariantEntity(variant.getAccession(),
                                                    hashingFunction.apply(newVariant),
                                                    newVariant,
                                                    variant.getVersion());
         } else {
-            if (!processedContigs.contains(contigName)) {
+            ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contigName);
+            boolean contigPresentInAssemblyReport = contigSynonyms != null;
+            if (!contigPresentInAssemblyReport) {
+                throw new IllegalStateException(
+                        "Contig '" + contigName + "' was not found in the assembly report! "
+                                + "Is the assembly accession '" + variant.getAssemblyAccession() + "' correct?");
+            }
+            if (processedContigs.add(contigName)) {
+                StringBuilder message = new StringBuilder();
+                contigMapping.isGenbankReplacementPossible(contigName, contigSynonyms, message);
                 logger.warn(message.toString());
-                processedContigs.add(contigName);
             }
             return variant;
         }
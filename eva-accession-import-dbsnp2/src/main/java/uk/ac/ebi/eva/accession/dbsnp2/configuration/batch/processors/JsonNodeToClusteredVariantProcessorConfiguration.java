@@ -23,6 +23,9 @@ import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.support.CompositeItemProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import uk.ac.ebi.eva.accession.core.configuration.AssemblyReportCacheConfiguration;
+import uk.ac.ebi.eva.accession.core.contig.AssemblyReportCache;
 import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
 import uk.ac.ebi.eva.accession.dbsnp2.batch.processors.ContigToGenbankReplacerProcessor;
@@ -37,6 +40,7 @@ import static uk.ac.ebi.eva.accession.dbsnp2.configuration.BeanNames.DBSNP_JSON_
  * Configuration to convert a dbSNP JSON line to a clustered variant object.
  */
 @Configuration
+@Import({AssemblyReportCacheConfiguration.class})
 public class JsonNodeToClusteredVariantProcessorConfiguration {
 
     private static final Logger logger = LoggerFactory
@@ -67,7 +71,8 @@ public class JsonNodeToClusteredVariantProcessorConfiguration {
     }
 
     @Bean
-    ContigMapping contigMapping(InputParameters parameters) throws Exception {
-        return new ContigMapping(parameters.getAssemblyReportUrl());
+    ContigMapping contigMapping(InputParameters parameters, AssemblyReportCache assemblyReportCache)
+            throws Exception {
+        return assemblyReportCache.getContigMapping(parameters.getAssemblyReportUrl());
     }
 }
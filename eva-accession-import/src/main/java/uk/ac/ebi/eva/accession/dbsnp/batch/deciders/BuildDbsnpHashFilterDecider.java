@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.deciders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
+
+public class BuildDbsnpHashFilterDecider implements JobExecutionDecider {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuildDbsnpHashFilterDecider.class);
+
+    @Autowired
+    private InputParameters inputParameters;
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        String dbsnpHashFilter = inputParameters.getDbsnpHashFilter();
+        boolean buildFilter = dbsnpHashFilter != null && !dbsnpHashFilter.isEmpty();
+        logger.info("Build the filter of dbSNP submitted variant hashes: {}", buildFilter);
+        return new FlowExecutionStatus(Boolean.toString(buildFilter).toUpperCase());
+    }
+}
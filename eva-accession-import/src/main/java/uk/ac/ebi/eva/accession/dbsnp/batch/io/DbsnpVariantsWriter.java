@@ -43,12 +43,15 @@ import uk.ac.ebi.eva.accession.dbsnp.model.DbsnpVariantsWrapper;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 import static uk.ac.ebi.eva.accession.dbsnp.batch.io.DbsnpClusteredVariantDeclusteredWriter.DBSNP_CLUSTERED_VARIANT_DECLUSTERED_COLLECTION_NAME;
 
 public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
@@ -92,14 +95,15 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
         this.dbsnpClusteredVariantDeclusteredWriter = new DbsnpClusteredVariantDeclusteredWriter(mongoTemplate);
 
         this.submittedOperationBuilder = new MergeOperationBuilder<>(
-                submittedOperationRepository, submittedVariantRepository, this::buildSubmittedMergeOperation);
+                submittedOperationRepository::findAllByAccessionIn, submittedVariantRepository::findByHashedMessageIn,
+                this::buildSubmittedMergeOperation);
         this.clusteredOperationBuilder = new MergeOperationBuilder<>(
-                clusteredOperationRepository, clusteredVariantRepository, this::buildClusteredMergeOperation);
+                clusteredOperationRepository::findAllByAccessionIn, clusteredVariantRepository::findByHashedMessageIn,
+                this::buildClusteredMergeOperation);
         this.declusteredOperationBuilder = new MergeOperationBuilder<>(
-                clusteredOperationRepository,
-                id -> java.util.Optional.ofNullable(
-                        mongoTemplate.findById(id, DbsnpClusteredVariantEntity.class,
-                                               DBSNP_CLUSTERED_VARIANT_DECLUSTERED_COLLECTION_NAME)),
+                clusteredOperationRepository::findAllByAccessionIn,
+                ids -> mongoTemplate.find(query(where("_id").in(ids)), DbsnpClusteredVariantEntity.class,
+                                          DBSNP_CLUSTERED_VARIANT_DECLUSTERED_COLLECTION_NAME),
                 this::buildClusteredMergeOperation);
     }
 
@@ -163,29 +167,35 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
     private List<DbsnpClusteredVariantOperationEntity> writeDeclusteredClusteredVariants(
             List<DbsnpClusteredVariantEntity> declusteredClusteredVariants) {
         List<DbsnpClusteredVariantEntity> clusteredVariantsDeclustered = new ArrayList<>(declusteredClusteredVariants);
+        List<DbsnpClusteredVariantOperationEntity> mergeOperations =
+                declusteredOperationBuilder.buildMergeOperationsForDuplicatedHashes(clusteredVariantsDeclustered);
         try {
             if (!clusteredVariantsDeclustered.isEmpty()) {
-                dbsnpClusteredVariantDeclusteredWriter.write(clusteredVariantsDeclustered);
+                dbsnpClusteredVariantDeclusteredWriter.write(
+                        declusteredOperationBuilder.removeDuplicatedHashes(clusteredVariantsDeclustered));
             }
-            return Collections.emptyList();
+            return mergeOperations;
         } catch (DuplicateKeyException exception) {
             MongoBulkWriteException writeException = ((MongoBulkWriteException) exception.getCause());
             return declusteredOperationBuilder.buildMergeOperationsFromException(clusteredVariantsDeclustered,
-                                                                                 writeException);
+                                                                                 mergeOperations, writeException);
         }
     }
 
     private List<DbsnpClusteredVariantOperationEntity> writeClusteredVariants(
             List<? extends DbsnpVariantsWrapper> wrappers) {
         List<DbsnpClusteredVariantEntity> clusteredVariants = getNonDeclusteredClusteredVariants(wrappers);
+        List<DbsnpClusteredVariantOperationEntity> mergeOperations =
+                clusteredOperationBuilder.buildMergeOperationsForDuplicatedHashes(clusteredVariants);
         try {
             if (!clusteredVariants.isEmpty()) {
-                dbsnpClusteredVariantWriter.write(clusteredVariants);
+                dbsnpClusteredVariantWriter.write(clusteredOperationBuilder.removeDuplicatedHashes(clusteredVariants));
             }
-            return Collections.emptyList();
+            return mergeOperations;
         } catch (DuplicateKeyException exception) {
             MongoBulkWriteException writeException = ((MongoBulkWriteException) exception.getCause());
-            return clusteredOperationBuilder.buildMergeOperationsFromException(clusteredVariants, writeException);
+            return clusteredOperationBuilder.buildMergeOperationsFromException(clusteredVariants, mergeOperations,
+                                                                               writeException);
         }
     }
 
@@ -248,6 +258,7 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
                     .add(mergeClusteredOperation);
         }
 
+        Map<Pair<String, Long>, List<Long>> ambiguousMerges = new HashMap<>();
         Map<Pair<String, Long>, Long> originalToNewAccessions = new HashMap<>();
         accessionToOperationsMap.forEach((hashAndAccession, accessionOperations) -> {
             List<Long> mergedIntoList = accessionOperations
@@ -257,8 +268,18 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
                     .collect(Collectors.toList());
 
             if (mergedIntoList.size() > 1) {
-                DbsnpClusteredVariantEntity activeClusteredVariant = mongoTemplate.findById(
-                        hashAndAccession.getFirst(), DbsnpClusteredVariantEntity.class);
+                ambiguousMerges.put(hashAndAccession, mergedIntoList);
+            } else {
+                originalToNewAccessions.put(hashAndAccession, mergedIntoList.get(0));
+            }
+        });
+
+        if (!ambiguousMerges.isEmpty()) {
+            Map<String, DbsnpClusteredVariantEntity> activeClusteredVariants = getActiveClusteredVariants(
+                    ambiguousMerges.keySet());
+            ambiguousMerges.forEach((hashAndAccession, mergedIntoList) -> {
+                DbsnpClusteredVariantEntity activeClusteredVariant = activeClusteredVariants.get(
+                        hashAndAccession.getFirst());
 
                 if (activeClusteredVariant == null || !mergedIntoList.contains(activeClusteredVariant.getAccession())) {
                     throwSeveralInactiveMergesException(hashAndAccession, mergedIntoList, activeClusteredVariant);
@@ -270,13 +291,26 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
                             hashAndAccession.getSecond(), mergedIntoList, activeClusteredVariant.getAccession(),
                                  DbsnpClusteredVariantEntity.class.getSimpleName());
                 }
-            } else {
-                originalToNewAccessions.put(hashAndAccession, mergedIntoList.get(0));
-            }
-        });
+            });
+        }
         return originalToNewAccessions;
     }
 
+    /**
+     * Retrieves with a single query the active clustered variants for the hashes of several ambiguous merges.
+     */
+    private Map<String, DbsnpClusteredVariantEntity> getActiveClusteredVariants(
+            Collection<Pair<String, Long>> hashesAndAccessions) {
+        List<String> hashes = hashesAndAccessions.stream()
+                                                 .map(Pair::getFirst)
+                                                 .distinct()
+                                                 .collect(Collectors.toList());
+        return mongoTemplate.find(query(where("_id").in(hashes)), DbsnpClusteredVariantEntity.class)
+                            .stream()
+                            .collect(Collectors.toMap(DbsnpClusteredVariantEntity::getHashedMessage,
+                                                      variant -> variant));
+    }
+
     private void throwSeveralInactiveMergesException(Pair<String, Long> hashAndAccession, List<Long> mergedIntoList,
                                                      DbsnpClusteredVariantEntity activeClusteredVariant) {
         String activeVariantMessage;
@@ -334,12 +368,15 @@ public class DbsnpVariantsWriter implements ItemWriter<DbsnpVariantsWrapper> {
         List<DbsnpSubmittedVariantEntity> submittedVariants = wrappers.stream()
                                                                       .flatMap(w -> w.getSubmittedVariants().stream())
                                                                       .collect(Collectors.toList());
+        List<DbsnpSubmittedVariantOperationEntity> mergeOperations =
+                submittedOperationBuilder.buildMergeOperationsForDuplicatedHashes(submittedVariants);
         try {
-            dbsnpSubmittedVariantWriter.write(submittedVariants);
-            return Collections.emptyList();
+            dbsnpSubmittedVariantWriter.write(submittedOperationBuilder.removeDuplicatedHashes(submittedVariants));
+            return mergeOperations;
         } catch (DuplicateKeyException exception) {
             MongoBulkWriteException writeException = ((MongoBulkWriteException) exception.getCause());
-            return submittedOperationBuilder.buildMergeOperationsFromException(submittedVariants, writeException);
+            return submittedOperationBuilder.buildMergeOperationsFromException(submittedVariants, mergeOperations,
+                                                                               writeException);
         }
     }
 
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsRowMapper.LOAD_ORDER_COLUMN;
+
+/**
+ * Splits the dbSNP table read by {@link SubSnpNoHgvsReader} into contiguous ranges of load order, so that each range
+ * can be imported by a different step execution. The limits of each range are stored in the execution context of its
+ * partition under {@link #MIN_LOAD_ORDER} and {@link #MAX_LOAD_ORDER}.
+ *
+ * The ranges are computed from the minimum and maximum load order, so they contain a similar number of rows as long as
+ * the load order has no big gaps.
+ */
+public class SubSnpNoHgvsLoadOrderPartitioner implements Partitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubSnpNoHgvsLoadOrderPartitioner.class);
+
+    public static final String MIN_LOAD_ORDER = "minLoadOrder";
+
+    public static final String MAX_LOAD_ORDER = "maxLoadOrder";
+
+    private static final String PARTITION_PREFIX = "partition";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String tableName;
+
+    public SubSnpNoHgvsLoadOrderPartitioner(String assembly, Long buildNumber, DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.tableName = SubSnpNoHgvsReader.getTableName(assembly, buildNumber);
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        long[] loadOrderLimits = jdbcTemplate.queryForObject(
+                "SELECT MIN(" + LOAD_ORDER_COLUMN + "), MAX(" + LOAD_ORDER_COLUMN + ") FROM " + tableName,
+                (resultSet, rowNumber) -> {
+                    long minLoadOrder = resultSet.getLong(1);
+                    return resultSet.wasNull() ? null : new long[]{minLoadOrder, resultSet.getLong(2)};
+                });
+        if (loadOrderLimits == null) {
+            logger.info("Table {} is empty, no partitions to import", tableName);
+            return Collections.emptyMap();
+        }
+        return partition(loadOrderLimits[0], loadOrderLimits[1], gridSize);
+    }
+
+    static Map<String, ExecutionContext> partition(long minLoadOrder, long maxLoadOrder, int gridSize) {
+        long rangeSize = (maxLoadOrder - minLoadOrder) / Math.max(1, gridSize) + 1;
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        for (long rangeStart = minLoadOrder; rangeStart <= maxLoadOrder; rangeStart += rangeSize) {
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putLong(MIN_LOAD_ORDER, rangeStart);
+            executionContext.putLong(MAX_LOAD_ORDER, Math.min(rangeStart + rangeSize - 1, maxLoadOrder));
+            partitions.put(PARTITION_PREFIX + partitions.size(), executionContext);
+        }
+        logger.info("Split load orders {} to {} into {} partitions of up to {} rows", minLoadOrder, maxLoadOrder,
+                    partitions.size(), rangeSize);
+        return partitions;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsRowMapper.LOAD_ORDER_COLUMN;
+
+/**
+ * Reads the same rows as {@link SubSnpNoHgvsReader}, but one page at a time with queries like
+ * "WHERE load_order > ? ORDER BY load_order LIMIT ?" instead of a single cursor over the whole table.
+ *
+ * The load order of the last row read is saved in the execution context, so a restarted step queries directly the rows
+ * after it, instead of reading and discarding all the rows that were imported before the failure. The restart doesn't
+ * depend on the number of rows read nor on the page size, so the step can be restarted with a different page size.
+ */
+public class SubSnpNoHgvsPagingReader extends AbstractItemCountingItemStreamItemReader<SubSnpNoHgvs>
+        implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubSnpNoHgvsPagingReader.class);
+
+    static final String LAST_LOAD_ORDER_KEY = "last.load.order";
+
+    /** Key where {@link AbstractItemCountingItemStreamItemReader} saves the number of rows read */
+    private static final String READ_COUNT_KEY = "read.count";
+
+    private static final String MIN_LOAD_ORDER_PARAMETER = "minLoadOrder";
+
+    private static final String MAX_LOAD_ORDER_PARAMETER = "maxLoadOrder";
+
+    private static final String LAST_LOAD_ORDER_PARAMETER = "lastLoadOrder";
+
+    private static final String PAGE_SIZE_PARAMETER = "pageSize";
+
+    private final DataSource dataSource;
+
+    private final SubSnpNoHgvsRowMapper rowMapper;
+
+    private final int pageSize;
+
+    private final String firstPageSql;
+
+    private final String nextPageSql;
+
+    private final Map<String, Object> parameterValues;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private List<LoadOrderedSubSnp> page;
+
+    private int pageIndex;
+
+    /** Load order of the last row returned by {@link #read()}, or null if no row has been read yet */
+    private Long lastLoadOrder;
+
+    public SubSnpNoHgvsPagingReader(String assembly, Long buildNumber, DataSource dataSource, int pageSize) {
+        this(assembly, buildNumber, null, null, dataSource, pageSize);
+    }
+
+    /**
+     * Reads only the rows whose load order is between the given values, both inclusive, or the whole table if both are
+     * null.
+     */
+    public SubSnpNoHgvsPagingReader(String assembly, Long buildNumber, Long minLoadOrder, Long maxLoadOrder,
+                                    DataSource dataSource, int pageSize) {
+        if ((minLoadOrder == null) != (maxLoadOrder == null)) {
+            throw new IllegalArgumentException("Both limits of the load order range are required, or none of them");
+        }
+        String tableName = SubSnpNoHgvsReader.getTableName(assembly, buildNumber);
+        logger.debug("querying table {} for assembly {} in pages of {} rows", tableName, assembly, pageSize);
+
+        this.parameterValues = new HashMap<>();
+        List<String> conditions = new ArrayList<>();
+        if (minLoadOrder != null) {
+            conditions.add(LOAD_ORDER_COLUMN + " BETWEEN :" + MIN_LOAD_ORDER_PARAMETER + " AND :"
+                                   + MAX_LOAD_ORDER_PARAMETER);
+            parameterValues.put(MIN_LOAD_ORDER_PARAMETER, minLoadOrder);
+            parameterValues.put(MAX_LOAD_ORDER_PARAMETER, maxLoadOrder);
+        }
+        this.firstPageSql = buildSql(tableName, conditions);
+        conditions.add(LOAD_ORDER_COLUMN + " > :" + LAST_LOAD_ORDER_PARAMETER);
+        this.nextPageSql = buildSql(tableName, conditions);
+        parameterValues.put(PAGE_SIZE_PARAMETER, pageSize);
+
+        this.dataSource = dataSource;
+        this.rowMapper = new SubSnpNoHgvsRowMapper(assembly);
+        this.pageSize = pageSize;
+        setName(ClassUtils.getShortName(SubSnpNoHgvsPagingReader.class));
+    }
+
+    private static String buildSql(String tableName, List<String> conditions) {
+        return "SELECT " + SubSnpNoHgvsReader.getSelectedColumns() + "," + LOAD_ORDER_COLUMN +
+                " FROM " + tableName +
+                (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+                " ORDER BY " + LOAD_ORDER_COLUMN +
+                " LIMIT :" + PAGE_SIZE_PARAMETER;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(dataSource, "DataSource may not be null");
+        Assert.isTrue(pageSize > 0, "Page size must be greater than zero");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        lastLoadOrder = null;
+        String lastLoadOrderKey = getExecutionContextKey(LAST_LOAD_ORDER_KEY);
+        if (isSaveState() && executionContext.containsKey(lastLoadOrderKey)) {
+            lastLoadOrder = executionContext.getLong(lastLoadOrderKey);
+            logger.info("Restarting the read after load order {}", lastLoadOrder);
+        } else if (isSaveState() && executionContext.getInt(getExecutionContextKey(READ_COUNT_KEY), 0) > 0) {
+            throw new ItemStreamException("Can't restart the read: the execution context has the number of rows read "
+                                                  + "but not the load order of the last one");
+        }
+        super.open(executionContext);
+    }
+
+    @Override
+    protected void doOpen() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        page = null;
+        pageIndex = 0;
+    }
+
+    /**
+     * The restart is driven by the load order saved in the execution context, so the rows read before are not skipped
+     * one by one. The number of rows read is still restored for the step statistics.
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) {
+    }
+
+    @Override
+    protected SubSnpNoHgvs doRead() {
+        if (page == null || pageIndex == page.size()) {
+            if (page != null && page.size() < pageSize) {
+                return null;
+            }
+            readPage();
+            if (page.isEmpty()) {
+                return null;
+            }
+        }
+        LoadOrderedSubSnp row = page.get(pageIndex++);
+        lastLoadOrder = row.loadOrder;
+        return row.subSnp;
+    }
+
+    private void readPage() {
+        Map<String, Object> pageParameterValues = new HashMap<>(parameterValues);
+        String sql = firstPageSql;
+        if (lastLoadOrder != null) {
+            pageParameterValues.put(LAST_LOAD_ORDER_PARAMETER, lastLoadOrder);
+            sql = nextPageSql;
+        }
+        page = jdbcTemplate.query(sql, pageParameterValues, (resultSet, rowNumber) -> new LoadOrderedSubSnp(
+                resultSet.getLong(LOAD_ORDER_COLUMN), rowMapper.mapRow(resultSet, rowNumber)));
+        pageIndex = 0;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        super.update(executionContext);
+        if (isSaveState() && lastLoadOrder != null) {
+            executionContext.putLong(getExecutionContextKey(LAST_LOAD_ORDER_KEY), lastLoadOrder);
+        }
+    }
+
+    @Override
+    protected void doClose() {
+        page = null;
+        jdbcTemplate = null;
+    }
+
+    private static class LoadOrderedSubSnp {
+
+        private final long loadOrder;
+
+        private final SubSnpNoHgvs subSnp;
+
+        LoadOrderedSubSnp(long loadOrder, SubSnpNoHgvs subSnp) {
+            this.loadOrder = loadOrder;
+            this.subSnp = subSnp;
+        }
+    }
+}
@@ -55,8 +55,27 @@ public class SubSnpNoHgvsReader extends JdbcCursorItemReader<SubSnpNoHgvs> {
     private static final Logger logger = LoggerFactory.getLogger(SubSnpNoHgvsReader.class);
 
     public SubSnpNoHgvsReader(String assembly, Long buildNumber, DataSource dataSource, int pageSize) throws Exception {
+        this(assembly, buildNumber, null, null, dataSource, pageSize);
+    }
+
+    /**
+     * Reads only the rows whose load order is between the given values, both inclusive, or the whole table if both are
+     * null. Used to read each partition of the table in a different step, see {@link SubSnpNoHgvsLoadOrderPartitioner}
+     */
+    public SubSnpNoHgvsReader(String assembly, Long buildNumber, Long minLoadOrder, Long maxLoadOrder,
+                              DataSource dataSource, int pageSize) throws Exception {
+        if ((minLoadOrder == null) != (maxLoadOrder == null)) {
+            throw new IllegalArgumentException("Both limits of the load order range are required, or none of them");
+        }
+        boolean loadOrderRange = minLoadOrder != null;
         setDataSource(dataSource);
-        setSql(buildSql(assembly, buildNumber));
+        setSql(buildSql(assembly, buildNumber, loadOrderRange));
+        if (loadOrderRange) {
+            setPreparedStatementSetter(preparedStatement -> {
+                preparedStatement.setLong(1, minLoadOrder);
+                preparedStatement.setLong(2, maxLoadOrder);
+            });
+        }
         setRowMapper(new SubSnpNoHgvsRowMapper(assembly));
         setFetchSize(pageSize);
     }
@@ -71,39 +90,43 @@ public class SubSnpNoHgvsReader extends JdbcCursorItemReader<SubSnpNoHgvs> {
         super.openCursor(connection);
     }
 
-    private String buildSql(String assembly, Long buildNumber) {
+    private String buildSql(String assembly, Long buildNumber, boolean loadOrderRange) {
         String tableName = getTableName(assembly, buildNumber);
         logger.debug("querying table {} for assembly {}", tableName, assembly);
         String sql =
-                "SELECT " +
-                        SS_ID_COLUMN +
-                        "," + RS_ID_COLUMN +
-                        "," + ALLELES_COLUMN +
-                        "," + BATCH_HANDLE_COLUMN +
-                        "," + BATCH_NAME_COLUMN +
-                        "," + CHROMOSOME_COLUMN +
-                        "," + CHROMOSOME_START_COLUMN +
-                        "," + CONTIG_NAME_COLUMN +
-                        "," + SNP_CLASS_COLUMN +
-                        "," + SUBSNP_ORIENTATION_COLUMN +
-                        "," + SNP_ORIENTATION_COLUMN +
-                        "," + CONTIG_ORIENTATION_COLUMN +
-                        "," + CONTIG_START_COLUMN +
-                        "," + FREQUENCY_EXISTS_COLUMN +
-                        "," + GENOTYPE_EXISTS_COLUMN +
-                        "," + REFERENCE_COLUMN +
-                        "," + SUBSNP_VALIDATED_COLUMN +
-                        "," + SNP_VALIDATED_COLUMN +
-                        "," + SS_CREATE_TIME_COLUMN +
-                        "," + RS_CREATE_TIME_COLUMN +
-                        "," + TAXONOMY_ID_COLUMN +
+                "SELECT " + getSelectedColumns() +
                         " FROM " + tableName +
+                        (loadOrderRange ? " WHERE " + LOAD_ORDER_COLUMN + " BETWEEN ? AND ?" : "") +
                         " ORDER BY " + LOAD_ORDER_COLUMN;
 
         return sql;
     }
 
-    private String getTableName(String assembly, Long buildNumber) {
+    static String getSelectedColumns() {
+        return SS_ID_COLUMN +
+                "," + RS_ID_COLUMN +
+                "," + ALLELES_COLUMN +
+                "," + BATCH_HANDLE_COLUMN +
+                "," + BATCH_NAME_COLUMN +
+                "," + CHROMOSOME_COLUMN +
+                "," + CHROMOSOME_START_COLUMN +
+                "," + CONTIG_NAME_COLUMN +
+                "," + SNP_CLASS_COLUMN +
+                "," + SUBSNP_ORIENTATION_COLUMN +
+                "," + SNP_ORIENTATION_COLUMN +
+                "," + CONTIG_ORIENTATION_COLUMN +
+                "," + CONTIG_START_COLUMN +
+                "," + FREQUENCY_EXISTS_COLUMN +
+                "," + GENOTYPE_EXISTS_COLUMN +
+                "," + REFERENCE_COLUMN +
+                "," + SUBSNP_VALIDATED_COLUMN +
+                "," + SNP_VALIDATED_COLUMN +
+                "," + SS_CREATE_TIME_COLUMN +
+                "," + RS_CREATE_TIME_COLUMN +
+                "," + TAXONOMY_ID_COLUMN;
+    }
+
+    static String getTableName(String assembly, Long buildNumber) {
         if (buildNumber == null) {
             return "dbsnp_variant_load_nohgvslink_" + hash(assembly);
         } else {
@@ -111,7 +134,7 @@ public class SubSnpNoHgvsReader extends JdbcCursorItemReader<SubSnpNoHgvs> {
         }
     }
 
-    private String hash(String string) {
+    private static String hash(String string) {
         return DigestUtils.md5DigestAsHex(string.getBytes());
     }
 
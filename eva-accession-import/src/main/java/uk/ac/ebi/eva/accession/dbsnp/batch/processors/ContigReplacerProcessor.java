@@ -24,8 +24,10 @@ import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
 import uk.ac.ebi.eva.accession.dbsnp.exceptions.NonIdenticalChromosomeAccessionsException;
 import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
 
-import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.VALIDATE_CONTIGS_STEP;
@@ -40,6 +42,8 @@ public class ContigReplacerProcessor implements ItemProcessor<SubSnpNoHgvs, SubS
 
     private static final Logger logger = LoggerFactory.getLogger(ContigReplacerProcessor.class);
 
+    private static final ContigReplacement NO_REPLACEMENT = new ContigReplacement(null, false);
+
     private ContigMapping contigMapping;
 
     private String assemblyAccession;
@@ -48,18 +52,43 @@ public class ContigReplacerProcessor implements ItemProcessor<SubSnpNoHgvs, SubS
 
     private Set<String> nonIdenticalChromosomes;
 
+    /**
+     * Replacement decided for each combination of contig, chromosome and presence of chromosome coordinates. There are
+     * only a few of them per assembly, so the synonyms are checked only the first time each one is found.
+     */
+    private Map<ContigReplacementKey, ContigReplacement> replacements;
+
     public ContigReplacerProcessor(ContigMapping contigMapping, String assemblyAccession) {
         this.contigMapping = contigMapping;
         this.assemblyAccession = assemblyAccession;
-        this.processedContigs = new HashSet<>();
-        this.nonIdenticalChromosomes = new HashSet<>();
+        this.processedContigs = ConcurrentHashMap.newKeySet();
+        this.nonIdenticalChromosomes = ConcurrentHashMap.newKeySet();
+        this.replacements = new ConcurrentHashMap<>();
     }
 
     @Override
     public SubSnpNoHgvs process(SubSnpNoHgvs subSnpNoHgvs) throws Exception {
-        String contigName = subSnpNoHgvs.getContigName();
+        ContigReplacementKey key = new ContigReplacementKey(subSnpNoHgvs.getContigName(),
+                                                            subSnpNoHgvs.getChromosome(),
+                                                            subSnpNoHgvs.getChromosomeStart() != null);
+        ContigReplacement replacement = replacements.computeIfAbsent(key, this::decideReplacement);
+
+        if (replacement.genbank != null) {
+            subSnpNoHgvs.setContigName(replacement.genbank);
+            if (replacement.chromosomeCoordinates) {
+                subSnpNoHgvs.setContigStart(subSnpNoHgvs.getChromosomeStart());
+            }
+        } else {
+            // No replacement is possible. We must keep the original RefSeq accession
+        }
+
+        return subSnpNoHgvs;
+    }
+
+    private ContigReplacement decideReplacement(ContigReplacementKey key) {
+        String contigName = key.contigName;
         ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contigName);
-        ContigSynonyms chromosomeSynonyms = contigMapping.getContigSynonyms(subSnpNoHgvs.getChromosome());
+        ContigSynonyms chromosomeSynonyms = contigMapping.getContigSynonyms(key.chromosome);
 
         boolean chromosomePresentInAssemblyReport = chromosomeSynonyms != null;
         boolean contigPresentInAssemblyReport = contigSynonyms != null;
@@ -67,46 +96,42 @@ public class ContigReplacerProcessor implements ItemProcessor<SubSnpNoHgvs, SubS
         if (!contigPresentInAssemblyReport && !chromosomePresentInAssemblyReport) {
             throw new IllegalStateException(
                     "Neither contig '" + contigName + "' nor chromosome '"
-                            + subSnpNoHgvs.getChromosome()
+                            + key.chromosome
                             + "' were found in the assembly report! Is the assembly accession '"
                             + assemblyAccession + "' correct?");
         }
 
         if (chromosomePresentInAssemblyReport
                 && contigPresentInAssemblyReport
-                && !processedContigs.contains(contigName)
-                && !contigSynonyms.equals(chromosomeSynonyms)) {
+                && !contigSynonyms.equals(chromosomeSynonyms)
+                && processedContigs.add(contigName)) {
             logger.warn(
-                    "Contig '" + contigName + "' and chromosome '" + subSnpNoHgvs.getChromosome()
+                    "Contig '" + contigName + "' and chromosome '" + key.chromosome
                             + "' do not appear in the same line in the assembly report!");
-            processedContigs.add(contigName);
         }
 
-        if (isChromosomeReplaceable(subSnpNoHgvs, chromosomeSynonyms)) {
-            replaceChromosomeWithGenbankAccession(subSnpNoHgvs, chromosomeSynonyms);
+        if (isChromosomeReplaceable(key, chromosomeSynonyms)) {
+            return new ContigReplacement(chromosomeSynonyms.getGenBank(), true);
         } else if (isContigReplaceable(contigSynonyms)) {
-            replaceContigWithGenbankAccession(subSnpNoHgvs, contigSynonyms);
+            return new ContigReplacement(contigSynonyms.getGenBank(), false);
         } else {
-            // No replacement is possible. We must keep the original RefSeq accession
+            return NO_REPLACEMENT;
         }
-
-        return subSnpNoHgvs;
     }
 
-    private boolean isChromosomeReplaceable(SubSnpNoHgvs subSnpNoHgvs, ContigSynonyms chromosomeSynonyms) {
+    private boolean isChromosomeReplaceable(ContigReplacementKey key, ContigSynonyms chromosomeSynonyms) {
         StringBuilder reason = new StringBuilder();
 
         boolean replaceable;
         try {
             replaceable = ContigSynonymValidationProcessor.isChromosomeReplaceable(
-                    subSnpNoHgvs.getChromosome(),
-                    subSnpNoHgvs.getChromosomeStart() != null,
+                    key.chromosome,
+                    key.chromosomeStartPresent,
                     chromosomeSynonyms,
                     reason);
         } catch (NonIdenticalChromosomeAccessionsException e) {
             replaceable = true;
-            if (!nonIdenticalChromosomes.contains(chromosomeSynonyms.getGenBank())) {
-                nonIdenticalChromosomes.add(chromosomeSynonyms.getGenBank());
+            if (nonIdenticalChromosomes.add(chromosomeSynonyms.getGenBank())) {
                 logger.warn("Performing replacement even if the equivalence is dubious. This should have failed in the "
                             + VALIDATE_CONTIGS_STEP + ", but now we are in the " + IMPORT_DBSNP_VARIANTS_STEP
                             + ", which means the 'forceImport' flag was set. Details:" + e.getMessage());
@@ -115,16 +140,55 @@ public class ContigReplacerProcessor implements ItemProcessor<SubSnpNoHgvs, SubS
         return replaceable;
     }
 
-    private void replaceChromosomeWithGenbankAccession(SubSnpNoHgvs subSnpNoHgvs, ContigSynonyms chromosomeSynonyms) {
-        subSnpNoHgvs.setContigName(chromosomeSynonyms.getGenBank());
-        subSnpNoHgvs.setContigStart(subSnpNoHgvs.getChromosomeStart());
-    }
-
     private boolean isContigReplaceable(ContigSynonyms contigSynonyms) {
         return ContigSynonymValidationProcessor.isContigReplaceable(contigSynonyms, new StringBuilder());
     }
 
-    private void replaceContigWithGenbankAccession(SubSnpNoHgvs subSnpNoHgvs, ContigSynonyms contigSynonyms) {
-        subSnpNoHgvs.setContigName(contigSynonyms.getGenBank());
+    private static final class ContigReplacementKey {
+
+        private final String contigName;
+
+        private final String chromosome;
+
+        private final boolean chromosomeStartPresent;
+
+        ContigReplacementKey(String contigName, String chromosome, boolean chromosomeStartPresent) {
+            this.contigName = contigName;
+            this.chromosome = chromosome;
+            this.chromosomeStartPresent = chromosomeStartPresent;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ContigReplacementKey that = (ContigReplacementKey) o;
+            return chromosomeStartPresent == that.chromosomeStartPresent
+                    && Objects.equals(contigName, that.contigName)
+                    && Objects.equals(chromosome, that.chromosome);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(contigName, chromosome, chromosomeStartPresent);
+        }
+    }
+
+    private static final class ContigReplacement {
+
+        /** INSDC accession that replaces the contig, or null if it can't be replaced */
+        private final String genbank;
+
+        /** Whether the chromosome coordinates have to be used instead of the contig ones */
+        private final boolean chromosomeCoordinates;
+
+        ContigReplacement(String genbank, boolean chromosomeCoordinates) {
+            this.genbank = genbank;
+            this.chromosomeCoordinates = chromosomeCoordinates;
+        }
     }
 }
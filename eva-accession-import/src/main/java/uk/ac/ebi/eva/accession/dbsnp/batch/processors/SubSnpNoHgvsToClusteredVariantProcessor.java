@@ -16,11 +16,10 @@
 package uk.ac.ebi.eva.accession.dbsnp.batch.processors;
 
 import org.springframework.batch.item.ItemProcessor;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 
 import uk.ac.ebi.eva.accession.core.model.ClusteredVariant;
 import uk.ac.ebi.eva.accession.core.model.IClusteredVariant;
-import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.ClusteredVariantHashingFunction;
 import uk.ac.ebi.eva.accession.dbsnp.model.DbsnpVariantType;
 import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
@@ -40,7 +39,7 @@ public class SubSnpNoHgvsToClusteredVariantProcessor
     private String assemblyAccession;
 
     public SubSnpNoHgvsToClusteredVariantProcessor(String assemblyAccession) {
-        this.hashingFunction = new ClusteredVariantSummaryFunction().andThen(new SHA1HashingFunction());
+        this.hashingFunction = new ClusteredVariantHashingFunction();
         this.assemblyAccession = assemblyAccession;
     }
 
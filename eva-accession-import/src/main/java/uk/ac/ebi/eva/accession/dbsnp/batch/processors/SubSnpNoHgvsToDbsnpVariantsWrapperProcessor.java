@@ -16,12 +16,11 @@
 package uk.ac.ebi.eva.accession.dbsnp.batch.processors;
 
 import org.springframework.batch.item.ItemProcessor;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 
 import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
 import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantEntity;
-import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
 import uk.ac.ebi.eva.accession.core.batch.io.FastaSynonymSequenceReader;
 import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
@@ -53,7 +52,7 @@ public class SubSnpNoHgvsToDbsnpVariantsWrapperProcessor implements ItemProcesso
         this.assemblyAccession = assemblyAccession;
         this.renormalizationProcessor = new SubmittedVariantRenormalizationProcessor(fastaSequenceReader);
         this.subSnpNoHgvsToClusteredVariantProcessor = new SubSnpNoHgvsToClusteredVariantProcessor(assemblyAccession);
-        this.hashingFunction = new SubmittedVariantSummaryFunction().andThen(new SHA1HashingFunction());
+        this.hashingFunction = new SubmittedVariantHashingFunction();
         this.projectAccessionMappings = projectAccessionMappings;
     }
 
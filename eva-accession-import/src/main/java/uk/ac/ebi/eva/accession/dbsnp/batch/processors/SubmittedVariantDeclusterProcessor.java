@@ -17,14 +17,13 @@ package uk.ac.ebi.eva.accession.dbsnp.batch.processors;
 
 import org.springframework.batch.item.ItemProcessor;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.EventType;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 
 import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpClusteredVariantEntity;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantEntity;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantInactiveEntity;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantOperationEntity;
-import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
 import uk.ac.ebi.eva.accession.dbsnp.model.DbsnpVariantType;
 import uk.ac.ebi.eva.accession.dbsnp.model.DbsnpVariantsWrapper;
 import uk.ac.ebi.eva.commons.core.models.VariantClassifier;
@@ -47,7 +46,7 @@ public class SubmittedVariantDeclusterProcessor implements ItemProcessor<DbsnpVa
     private Function<ISubmittedVariant, String> hashingFunction;
 
     public SubmittedVariantDeclusterProcessor() {
-        hashingFunction = new SubmittedVariantSummaryFunction().andThen(new SHA1HashingFunction());
+        hashingFunction = new SubmittedVariantHashingFunction();
 
     }
 
@@ -15,22 +15,23 @@
  */
 package uk.ac.ebi.eva.accession.dbsnp.batch.processors;
 
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemProcessor;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 
 import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
 import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
 import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantEntity;
-import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
 import uk.ac.ebi.eva.accession.core.batch.io.FastaSynonymSequenceReader;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class SubmittedVariantRenormalizationProcessor implements
         ItemProcessor<List<DbsnpSubmittedVariantEntity>, List<DbsnpSubmittedVariantEntity>> {
@@ -45,22 +46,57 @@ public class SubmittedVariantRenormalizationProcessor implements
 
     public SubmittedVariantRenormalizationProcessor(FastaSynonymSequenceReader fastaSequenceReader) {
         this.fastaSequenceReader = fastaSequenceReader;
-        hashingFunction = new SubmittedVariantSummaryFunction().andThen(new SHA1HashingFunction());
-        this.processedContigs = new HashSet<>();
+        hashingFunction = new SubmittedVariantHashingFunction();
+        this.processedContigs = ConcurrentHashMap.newKeySet();
     }
 
     @Override
     public List<DbsnpSubmittedVariantEntity> process(List<DbsnpSubmittedVariantEntity> variants) {
-        return variants.stream().map(this::process).collect(Collectors.toList());
+        String[] contextBases = getContextBasesInAssembly(variants);
+        List<DbsnpSubmittedVariantEntity> processedVariants = new ArrayList<>(variants.size());
+        for (int i = 0; i < variants.size(); i++) {
+            processedVariants.add(process(variants.get(i), contextBases[i]));
+        }
+        return processedVariants;
     }
 
-    private DbsnpSubmittedVariantEntity process(DbsnpSubmittedVariantEntity variant) {
-        if (isAmbiguous(variant)) {
+    private DbsnpSubmittedVariantEntity process(DbsnpSubmittedVariantEntity variant, String contextBase) {
+        if (isAmbiguous(variant, contextBase)) {
             return renormalize(variant);
         }
         return variant;
     }
 
+    /**
+     * Retrieves together the bases before all the indels of the chunk, so that the FASTA file is read in order of
+     * position instead of once per variant.
+     *
+     * @return The base before each indel, or null for the rest of variants. If some base can't be retrieved, all are
+     * null and they are retrieved one by one by {@link #getContextBaseInAssembly(ISubmittedVariant)}, so that the
+     * problem is reported for the right variant
+     */
+    private String[] getContextBasesInAssembly(List<? extends ISubmittedVariant> variants) {
+        String[] contextBases = new String[variants.size()];
+        List<Integer> indelIndexes = new ArrayList<>();
+        List<ImmutablePair<String, Long>> contextPositions = new ArrayList<>();
+        for (int i = 0; i < variants.size(); i++) {
+            ISubmittedVariant variant = variants.get(i);
+            if (isIndelWithOneEmptyAllele(variant) && variant.getStart() > 1) {
+                indelIndexes.add(i);
+                contextPositions.add(new ImmutablePair<>(variant.getContig(), variant.getStart() - 1));
+            }
+        }
+        try {
+            List<String> bases = fastaSequenceReader.getBases(contextPositions);
+            for (int i = 0; i < indelIndexes.size(); i++) {
+                contextBases[indelIndexes.get(i)] = bases.get(i);
+            }
+        } catch (Exception e) {
+            Arrays.fill(contextBases, null);
+        }
+        return contextBases;
+    }
+
     /**
      * We define the requirements to be an ambiguous variant as: being an indel (one allele is empty) and the non empty
      * allele ends with the same nucleotide as what is in the reference assembly right before the variant.
@@ -79,14 +115,11 @@ public class SubmittedVariantRenormalizationProcessor implements
      * @see SubmittedVariantRenormalizationProcessor#renormalize(DbsnpSubmittedVariantEntity)
      * @see SubmittedVariantRenormalizationProcessor#renormalizeAllele(java.lang.String)
      */
-    private boolean isAmbiguous(ISubmittedVariant variant) {
+    private boolean isAmbiguous(ISubmittedVariant variant, String contextBase) {
         try {
-            boolean isIndel = variant.getReferenceAllele().length() != variant.getAlternateAllele().length();
-            boolean oneAlleleIsEmpty = variant.getReferenceAllele().isEmpty() ^ variant.getAlternateAllele().isEmpty();
-            return isIndel && oneAlleleIsEmpty && areContextAndLastNucleotideEqual(variant);
+            return isIndelWithOneEmptyAllele(variant) && areContextAndLastNucleotideEqual(variant, contextBase);
         } catch (Exception e) {
-            if (!processedContigs.contains(variant.getContig())) {
-                processedContigs.add(variant.getContig());
+            if (processedContigs.add(variant.getContig())) {
                 logger.warn(e.getMessage());
             }
             // if something went wrong with the fasta, we can not say it's ambiguous
@@ -94,11 +127,20 @@ public class SubmittedVariantRenormalizationProcessor implements
         }
     }
 
-    private boolean areContextAndLastNucleotideEqual(ISubmittedVariant variant) {
+    private boolean isIndelWithOneEmptyAllele(ISubmittedVariant variant) {
+        boolean isIndel = variant.getReferenceAllele().length() != variant.getAlternateAllele().length();
+        boolean oneAlleleIsEmpty = variant.getReferenceAllele().isEmpty() ^ variant.getAlternateAllele().isEmpty();
+        return isIndel && oneAlleleIsEmpty;
+    }
+
+    /**
+     * @param contextBase Base before the variant, or null if it has to be retrieved from the FASTA file
+     */
+    private boolean areContextAndLastNucleotideEqual(ISubmittedVariant variant, String contextBase) {
         String nonEmptyAllele = variant.getReferenceAllele().isEmpty() ? variant.getAlternateAllele() :
                 variant.getReferenceAllele();
         char lastNucleotideInAllele = nonEmptyAllele.charAt(nonEmptyAllele.length() - 1);
-        char contextBaseInAssembly = getContextBaseInAssembly(variant);
+        char contextBaseInAssembly = contextBase != null ? contextBase.charAt(0) : getContextBaseInAssembly(variant);
 
         return lastNucleotideInAllele == contextBaseInAssembly;
     }
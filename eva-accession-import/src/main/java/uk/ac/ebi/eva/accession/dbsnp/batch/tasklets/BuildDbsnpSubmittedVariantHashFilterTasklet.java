@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.tasklets;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantEntity;
+import uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp.DbsnpSubmittedVariantHashFilter;
+
+import java.nio.file.Paths;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Builds the filter of the hashes of all the dbSNP submitted variants of an assembly, and writes it to a file that
+ * the submitted variant accessioning service can load to skip querying dbSNP for variants that are not there.
+ *
+ * Only the IDs of the documents are retrieved, streaming them with a cursor.
+ */
+public class BuildDbsnpSubmittedVariantHashFilterTasklet implements Tasklet {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuildDbsnpSubmittedVariantHashFilterTasklet.class);
+
+    private static final String ID_FIELD = "_id";
+
+    private static final String REFERENCE_SEQUENCE_FIELD = "seq";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final String assemblyAccession;
+
+    private final String filterPath;
+
+    private final double falsePositiveRate;
+
+    public BuildDbsnpSubmittedVariantHashFilterTasklet(MongoTemplate mongoTemplate, String assemblyAccession,
+                                                       String filterPath, double falsePositiveRate) {
+        this.mongoTemplate = mongoTemplate;
+        this.assemblyAccession = assemblyAccession;
+        this.filterPath = filterPath;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        String collectionName = mongoTemplate.getCollectionName(DbsnpSubmittedVariantEntity.class);
+        Query query = query(where(REFERENCE_SEQUENCE_FIELD).is(assemblyAccession));
+        long expectedHashes = mongoTemplate.count(query, collectionName);
+        DbsnpSubmittedVariantHashFilter filter = DbsnpSubmittedVariantHashFilter.create(assemblyAccession,
+                                                                                        expectedHashes,
+                                                                                        falsePositiveRate);
+
+        query.fields().include(ID_FIELD);
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(query, Document.class, collectionName)) {
+            while (documents.hasNext()) {
+                filter.add(documents.next().getString(ID_FIELD));
+                contribution.incrementReadCount();
+            }
+        }
+
+        filter.writeTo(Paths.get(filterPath));
+        logger.info("Filter of {} dbSNP submitted variant hashes of assembly {} written to {}",
+                    contribution.getReadCount(), assemblyAccession, filterPath);
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -30,7 +30,11 @@ public class BeanNames {
 
     public static final String DBSNP_VARIANT_WRITER = "DBSNP_VARIANT_WRITER";
 
+    public static final String DBSNP_VARIANT_PARTITIONER = "DBSNP_VARIANT_PARTITIONER";
+
     public static final String IMPORT_DBSNP_VARIANTS_STEP = "IMPORT_DBSNP_VARIANTS_STEP";
+
+    public static final String IMPORT_DBSNP_VARIANTS_PARTITION_STEP = "IMPORT_DBSNP_VARIANTS_PARTITION_STEP";
     
     public static final String IMPORT_DBSNP_VARIANTS_JOB = "IMPORT_DBSNP_VARIANTS_JOB";
 
@@ -43,4 +47,8 @@ public class BeanNames {
     public static final String FORCE_IMPORT_DECIDER = "FORCE_IMPORT_DECIDER";
 
     public static final String IMPORT_DBSNP_VARIANTS_FLOW_WITH_DECIDER = "IMPORT_DBSNP_VARIANTS_FLOW_WITH_DECIDER";
+
+    public static final String BUILD_DBSNP_HASH_FILTER_DECIDER = "BUILD_DBSNP_HASH_FILTER_DECIDER";
+
+    public static final String BUILD_DBSNP_HASH_FILTER_STEP = "BUILD_DBSNP_HASH_FILTER_STEP";
 }
@@ -24,8 +24,11 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import uk.ac.ebi.eva.accession.dbsnp.batch.deciders.BuildDbsnpHashFilterDecider;
 import uk.ac.ebi.eva.accession.dbsnp.batch.deciders.ForceImportDecider;
 
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.BUILD_DBSNP_HASH_FILTER_DECIDER;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.BUILD_DBSNP_HASH_FILTER_STEP;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.FORCE_IMPORT_DECIDER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_FLOW_WITH_DECIDER;
@@ -42,11 +45,20 @@ public class ImportFlowConfiguration {
     @Qualifier(VALIDATE_CONTIGS_STEP)
     private Step validateContigsStep;
 
+    @Autowired
+    @Qualifier(BUILD_DBSNP_HASH_FILTER_STEP)
+    private Step buildDbsnpHashFilterStep;
+
     @Bean(FORCE_IMPORT_DECIDER)
     public JobExecutionDecider decider() {
         return new ForceImportDecider();
     }
 
+    @Bean(BUILD_DBSNP_HASH_FILTER_DECIDER)
+    public JobExecutionDecider buildDbsnpHashFilterDecider() {
+        return new BuildDbsnpHashFilterDecider();
+    }
+
     @Bean(IMPORT_DBSNP_VARIANTS_FLOW_WITH_DECIDER)
     public Flow optionalFlow() {
         return new FlowBuilder<Flow>("OPTIONAL_FLOW")
@@ -55,6 +67,10 @@ public class ImportFlowConfiguration {
                 .from(decider()).on("FALSE")
                 .to(validateContigsStep)
                 .next(importDbsnpVariantsStep)
+                .next(buildDbsnpHashFilterDecider()).on("TRUE")
+                .to(buildDbsnpHashFilterStep)
+                .from(buildDbsnpHashFilterDecider()).on("FALSE")
+                .end()
                 .build();
     }
 }
@@ -18,16 +18,23 @@ package uk.ac.ebi.eva.accession.dbsnp.configuration.batch.io;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import uk.ac.ebi.eva.accession.core.configuration.DbsnpDataSource;
+import uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsLoadOrderPartitioner;
+import uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsPagingReader;
 import uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsReader;
+import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
 import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
 
 import javax.sql.DataSource;
 
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_PARTITIONER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_READER;
 
 @Configuration
@@ -38,10 +45,28 @@ public class ImportDbsnpVariantsReaderConfiguration {
 
     @Bean(name = DBSNP_VARIANT_READER)
     @StepScope
-    SubSnpNoHgvsReader subSnpCoreFieldsReader(InputParameters parameters, DbsnpDataSource dbsnpDataSource)
+    ItemStreamReader<SubSnpNoHgvs> subSnpCoreFieldsReader(
+            InputParameters parameters, DbsnpDataSource dbsnpDataSource,
+            @Value("#{stepExecutionContext['minLoadOrder']}") Long minLoadOrder,
+            @Value("#{stepExecutionContext['maxLoadOrder']}") Long maxLoadOrder)
             throws Exception {
-        logger.info("Injecting SubSnpNoHgvsReader with parameters: {}, {}", parameters, dbsnpDataSource);
         DataSource dataSource = dbsnpDataSource.getDatasource();
-        return new SubSnpNoHgvsReader(parameters.getAssemblyName(), parameters.getBuildNumber(), dataSource, parameters.getPageSize());
+        if (parameters.isKeysetPagination()) {
+            int pageSize = parameters.getPageSize() > 0 ? parameters.getPageSize() : parameters.getChunkSize();
+            logger.info("Injecting SubSnpNoHgvsPagingReader with parameters: {}, {}, load order range: {} to {}, "
+                                + "page size: {}", parameters, dbsnpDataSource, minLoadOrder, maxLoadOrder, pageSize);
+            return new SubSnpNoHgvsPagingReader(parameters.getAssemblyName(), parameters.getBuildNumber(),
+                                                minLoadOrder, maxLoadOrder, dataSource, pageSize);
+        }
+        logger.info("Injecting SubSnpNoHgvsReader with parameters: {}, {}, load order range: {} to {}", parameters,
+                    dbsnpDataSource, minLoadOrder, maxLoadOrder);
+        return new SubSnpNoHgvsReader(parameters.getAssemblyName(), parameters.getBuildNumber(), minLoadOrder,
+                                      maxLoadOrder, dataSource, parameters.getPageSize());
+    }
+
+    @Bean(DBSNP_VARIANT_PARTITIONER)
+    Partitioner subSnpNoHgvsLoadOrderPartitioner(InputParameters parameters, DbsnpDataSource dbsnpDataSource) {
+        return new SubSnpNoHgvsLoadOrderPartitioner(parameters.getAssemblyName(), parameters.getBuildNumber(),
+                                                    dbsnpDataSource.getDatasource());
     }
 }
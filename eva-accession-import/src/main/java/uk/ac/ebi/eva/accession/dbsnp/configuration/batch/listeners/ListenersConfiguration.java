@@ -63,7 +63,12 @@ public class ListenersConfiguration {
         return new ImportCounts();
     }
 
+    /**
+     * Step scoped because the partitions of the import step run concurrently, and each one needs its own listener and
+     * counts.
+     */
     @Bean(IMPORT_DBSNP_VARIANTS_PROGRESS_LISTENER)
+    @StepScope
     public StepListenerSupport<SubSnpNoHgvs, DbsnpVariantsWrapper> importDbsnpVariantsProgressListener(
             InputParameters parameters, ImportCounts importCounts) {
         return new ImportDbsnpVariantsStepProgressListener(parameters.getChunkSize(), importCounts);
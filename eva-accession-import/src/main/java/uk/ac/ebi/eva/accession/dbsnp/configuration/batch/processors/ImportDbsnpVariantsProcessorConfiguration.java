@@ -22,8 +22,11 @@ import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.support.CompositeItemProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.mongodb.core.MongoTemplate;
 
+import uk.ac.ebi.eva.accession.core.configuration.AssemblyReportCacheConfiguration;
+import uk.ac.ebi.eva.accession.core.contig.AssemblyReportCache;
 import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
 import uk.ac.ebi.eva.accession.core.batch.io.FastaSynonymSequenceReader;
 import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
@@ -44,6 +47,7 @@ import java.util.List;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_PROCESSOR;
 
 @Configuration
+@Import({AssemblyReportCacheConfiguration.class})
 public class ImportDbsnpVariantsProcessorConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(ImportDbsnpVariantsProcessorConfiguration.class);
@@ -72,8 +76,9 @@ public class ImportDbsnpVariantsProcessorConfiguration {
     }
 
     @Bean
-    ContigMapping contigMapping(InputParameters parameters) throws Exception {
-        return new ContigMapping(parameters.getAssemblyReportUrl());
+    ContigMapping contigMapping(InputParameters parameters, AssemblyReportCache assemblyReportCache)
+            throws Exception {
+        return assemblyReportCache.getContigMapping(parameters.getAssemblyReportUrl());
     }
 
     @Bean
@@ -85,7 +90,7 @@ public class ImportDbsnpVariantsProcessorConfiguration {
     FastaSynonymSequenceReader fastaSynonymSequenceReader(ContigMapping contigMapping, InputParameters parameters)
             throws IOException {
         Path referenceFastaFile = Paths.get(parameters.getFasta());
-        return new FastaSynonymSequenceReader(contigMapping, referenceFastaFile);
+        return new FastaSynonymSequenceReader(contigMapping, referenceFastaFile, parameters.isMemoryMappedFasta());
     }
 
     @Bean
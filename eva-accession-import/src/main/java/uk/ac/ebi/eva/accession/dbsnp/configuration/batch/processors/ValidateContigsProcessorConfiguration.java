@@ -17,7 +17,10 @@ package uk.ac.ebi.eva.accession.dbsnp.configuration.batch.processors;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
+import uk.ac.ebi.eva.accession.core.configuration.AssemblyReportCacheConfiguration;
+import uk.ac.ebi.eva.accession.core.contig.AssemblyReportCache;
 import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
 import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
 import uk.ac.ebi.eva.accession.dbsnp.batch.processors.ContigSynonymValidationProcessor;
@@ -25,6 +28,7 @@ import uk.ac.ebi.eva.accession.dbsnp.batch.processors.ContigSynonymValidationPro
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.CONTIG_PROCESSOR;
 
 @Configuration
+@Import({AssemblyReportCacheConfiguration.class})
 public class ValidateContigsProcessorConfiguration {
 
     @Bean(name = CONTIG_PROCESSOR)
@@ -33,7 +37,8 @@ public class ValidateContigsProcessorConfiguration {
     }
 
     @Bean
-    ContigMapping contigMapping(InputParameters parameters) throws Exception {
-        return new ContigMapping(parameters.getAssemblyReportUrl());
+    ContigMapping contigMapping(InputParameters parameters, AssemblyReportCache assemblyReportCache)
+            throws Exception {
+        return assemblyReportCache.getContigMapping(parameters.getAssemblyReportUrl());
     }
 }
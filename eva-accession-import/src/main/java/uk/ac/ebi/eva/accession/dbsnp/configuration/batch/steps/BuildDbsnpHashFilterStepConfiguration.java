@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.configuration.batch.steps;
+
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import uk.ac.ebi.eva.accession.dbsnp.batch.tasklets.BuildDbsnpSubmittedVariantHashFilterTasklet;
+import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
+
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.BUILD_DBSNP_HASH_FILTER_STEP;
+
+@Configuration
+@EnableBatchProcessing
+public class BuildDbsnpHashFilterStepConfiguration {
+
+    @Bean(BUILD_DBSNP_HASH_FILTER_STEP)
+    public Step buildDbsnpHashFilterStep(StepBuilderFactory stepBuilderFactory, InputParameters inputParameters,
+                                         MongoTemplate mongoTemplate) {
+        BuildDbsnpSubmittedVariantHashFilterTasklet tasklet = new BuildDbsnpSubmittedVariantHashFilterTasklet(
+                mongoTemplate, inputParameters.getAssemblyAccession(), inputParameters.getDbsnpHashFilter(),
+                inputParameters.getDbsnpHashFilterFalsePositiveRate());
+        return stepBuilderFactory.get(BUILD_DBSNP_HASH_FILTER_STEP)
+                                 .tasklet(tasklet)
+                                 .build();
+    }
+}
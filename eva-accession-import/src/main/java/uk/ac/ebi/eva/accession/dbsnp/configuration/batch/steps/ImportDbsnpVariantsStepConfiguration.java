@@ -20,7 +20,10 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
-import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.step.builder.AbstractTaskletStepBuilder;
+import org.springframework.batch.integration.async.AsyncItemProcessor;
+import org.springframework.batch.integration.async.AsyncItemWriter;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
@@ -29,14 +32,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
 import uk.ac.ebi.eva.accession.dbsnp.model.DbsnpVariantsWrapper;
+import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Future;
 
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.ASSEMBLY_CHECK_STEP_LISTENER;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_PARTITIONER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_PROCESSOR;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_READER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.DBSNP_VARIANT_WRITER;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_PARTITION_STEP;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_PROGRESS_LISTENER;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_STEP;
 
@@ -56,6 +67,10 @@ public class ImportDbsnpVariantsStepConfiguration {
     @Qualifier(DBSNP_VARIANT_WRITER)
     private ItemWriter<DbsnpVariantsWrapper> accessionWriter;
 
+    @Autowired
+    @Qualifier(DBSNP_VARIANT_PARTITIONER)
+    private Partitioner variantPartitioner;
+
     @Autowired
     @Qualifier(ASSEMBLY_CHECK_STEP_LISTENER)
     private StepExecutionListener assemblyCheckStepListener;
@@ -64,17 +79,96 @@ public class ImportDbsnpVariantsStepConfiguration {
     @Qualifier(IMPORT_DBSNP_VARIANTS_PROGRESS_LISTENER)
     private StepExecutionListener importDbsnpVariantsProgressListener;
 
+    private ThreadPoolTaskExecutor processingExecutor;
+
     @Bean(IMPORT_DBSNP_VARIANTS_STEP)
     public Step createSubsnpAccessionStep(StepBuilderFactory stepBuilderFactory,
-                                          SimpleCompletionPolicy chunkSizeCompletionPolicy) {
-        TaskletStep step = stepBuilderFactory.get(IMPORT_DBSNP_VARIANTS_STEP)
+                                          SimpleCompletionPolicy chunkSizeCompletionPolicy,
+                                          InputParameters parameters) {
+        if (parameters.getPartitions() > 1) {
+            return createPartitionedSubsnpAccessionStep(stepBuilderFactory, chunkSizeCompletionPolicy, parameters);
+        }
+        return createChunkSubsnpAccessionStep(IMPORT_DBSNP_VARIANTS_STEP, stepBuilderFactory,
+                                              chunkSizeCompletionPolicy, parameters)
+                .listener(assemblyCheckStepListener)
+                .build();
+    }
+
+    /**
+     * Each partition is a range of load orders imported by its own step execution, with its own reader, writer and
+     * counts, so a restart only resumes the partitions that didn't complete. The FASTA file used for the assembly
+     * check is shared by all of them, and is closed after the whole partitioned step.
+     *
+     * The partitions run in parallel, so when two variants of different partitions have to be merged, which accession
+     * is merged into which one depends on which partition writes first, and no longer follows the load order.
+     */
+    private Step createPartitionedSubsnpAccessionStep(StepBuilderFactory stepBuilderFactory,
+                                                      SimpleCompletionPolicy chunkSizeCompletionPolicy,
+                                                      InputParameters parameters) {
+        Step partitionStep = createChunkSubsnpAccessionStep(IMPORT_DBSNP_VARIANTS_PARTITION_STEP, stepBuilderFactory,
+                                                            chunkSizeCompletionPolicy, parameters).build();
+
+        SimpleAsyncTaskExecutor partitionExecutor = new SimpleAsyncTaskExecutor("dbsnp-import-partition-");
+        partitionExecutor.setConcurrencyLimit(parameters.getPartitions());
+
+        return stepBuilderFactory.get(IMPORT_DBSNP_VARIANTS_STEP)
+                .partitioner(IMPORT_DBSNP_VARIANTS_PARTITION_STEP, variantPartitioner)
+                .step(partitionStep)
+                .gridSize(parameters.getPartitions())
+                .taskExecutor(partitionExecutor)
+                .listener(assemblyCheckStepListener)
+                .build();
+    }
+
+    private AbstractTaskletStepBuilder<?> createChunkSubsnpAccessionStep(
+            String stepName, StepBuilderFactory stepBuilderFactory, SimpleCompletionPolicy chunkSizeCompletionPolicy,
+            InputParameters parameters) {
+        if (parameters.getProcessingThreads() > 1) {
+            return createParallelSubsnpAccessionStep(stepName, stepBuilderFactory, chunkSizeCompletionPolicy,
+                                                     parameters.getProcessingThreads());
+        }
+        return stepBuilderFactory.get(stepName)
                 .<SubSnpNoHgvs, DbsnpVariantsWrapper>chunk(chunkSizeCompletionPolicy)
                 .reader(variantReader)
                 .processor(variantProcessor)
                 .writer(accessionWriter)
-                .listener(assemblyCheckStepListener)
-                .listener(importDbsnpVariantsProgressListener)
-                .build();
-        return step;
+                .listener(importDbsnpVariantsProgressListener);
+    }
+
+    /**
+     * The variants of each chunk are still read and written in order by the step thread, so the restart behaviour
+     * doesn't change, but they are processed by a pool of threads in the meantime. The writer waits for all of them
+     * before writing the chunk, and rethrows the first processing error.
+     */
+    private AbstractTaskletStepBuilder<?> createParallelSubsnpAccessionStep(
+            String stepName, StepBuilderFactory stepBuilderFactory, SimpleCompletionPolicy chunkSizeCompletionPolicy,
+            int processingThreads) {
+        processingExecutor = new ThreadPoolTaskExecutor();
+        processingExecutor.setCorePoolSize(processingThreads);
+        processingExecutor.setMaxPoolSize(processingThreads);
+        processingExecutor.setThreadNamePrefix("dbsnp-variant-processor-");
+        processingExecutor.setDaemon(true);
+        processingExecutor.initialize();
+
+        AsyncItemProcessor<SubSnpNoHgvs, DbsnpVariantsWrapper> asyncProcessor = new AsyncItemProcessor<>();
+        asyncProcessor.setDelegate(variantProcessor);
+        asyncProcessor.setTaskExecutor(processingExecutor);
+
+        AsyncItemWriter<DbsnpVariantsWrapper> asyncWriter = new AsyncItemWriter<>();
+        asyncWriter.setDelegate(accessionWriter);
+
+        return stepBuilderFactory.get(stepName)
+                .<SubSnpNoHgvs, Future<DbsnpVariantsWrapper>>chunk(chunkSizeCompletionPolicy)
+                .reader(variantReader)
+                .processor(asyncProcessor)
+                .writer(asyncWriter)
+                .listener(importDbsnpVariantsProgressListener);
+    }
+
+    @PreDestroy
+    public void shutdownProcessingExecutor() {
+        if (processingExecutor != null) {
+            processingExecutor.shutdown();
+        }
     }
 }
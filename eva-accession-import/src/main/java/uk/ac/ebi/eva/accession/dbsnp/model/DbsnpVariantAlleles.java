@@ -21,8 +21,12 @@ import org.apache.commons.lang3.math.NumberUtils;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -65,9 +69,28 @@ public class DbsnpVariantAlleles {
 
     private static final Pattern ONLY_VALID_UNITS_PATTERN = Pattern.compile("^\\s*(" + ANY_UNIT_REGEX + "\\s*)+$");
 
+    /**
+     * Maximum number of distinct allele strings whose forward strand alleles are kept in
+     * {@link #ALLELES_IN_FORWARD_STRAND_CACHE}
+     */
+    private static final int ALLELES_CACHE_SIZE = 10000;
+
+    /**
+     * Forward strand alleles of the most recently parsed allele strings. The number of distinct allele strings in dbSNP
+     * is tiny compared with the number of rows, so most of the rows don't need to be parsed again. The cached lists
+     * are unmodifiable because they are shared by all the instances.
+     */
+    private static final Map<AllelesKey, List<String>> ALLELES_IN_FORWARD_STRAND_CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<AllelesKey, List<String>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<AllelesKey, List<String>> eldest) {
+                    return size() > ALLELES_CACHE_SIZE;
+                }
+            });
+
     private String referenceAllele;
 
-    private String[] alleles;
+    private String alleles;
 
     private Orientation referenceOrientation;
 
@@ -80,7 +103,7 @@ public class DbsnpVariantAlleles {
                                Orientation allelesOrientation,
                                DbsnpVariantType dbsnpVariantType) {
         this.referenceAllele = getTrimmedAllele(referenceAllele);
-        this.alleles = splitAndTrimAlleles(alleles);
+        this.alleles = alleles;
         this.referenceOrientation = referenceOrientation;
         this.allelesOrientation = allelesOrientation;
         this.dbsnpVariantType = dbsnpVariantType;
@@ -100,7 +123,7 @@ public class DbsnpVariantAlleles {
         return allele;
     }
 
-    private String[] splitAndTrimAlleles(String alleles) {
+    private static String[] splitAndTrimAlleles(String alleles) {
         return Arrays.stream(StringUtils.split(alleles, "/")).map(DbsnpVariantAlleles::getTrimmedAllele).
                 toArray(String[]::new);
     }
@@ -113,51 +136,91 @@ public class DbsnpVariantAlleles {
         }
     }
 
-    private String reverseComplement(String sequenceInReverseStrand) {
+    private static String reverseComplement(String sequenceInReverseStrand) {
         StringBuilder sequenceInForwardStrand = new StringBuilder(sequenceInReverseStrand).reverse();
         for (int i = 0; i < sequenceInForwardStrand.length(); i++) {
-            switch (sequenceInForwardStrand.charAt(i)) {
-                // Capitalization holds a special meaning for dbSNP so we need to preserve it.
-                // See https://www.ncbi.nlm.nih.gov/books/NBK44414/#_Reports_Lowercase_Small_Sequence_Letteri_
-                case 'A':
-                    sequenceInForwardStrand.setCharAt(i, 'T');
-                    break;
-                case 'a':
-                    sequenceInForwardStrand.setCharAt(i, 't');
-                    break;
-                case 'C':
-                    sequenceInForwardStrand.setCharAt(i, 'G');
-                    break;
-                case 'c':
-                    sequenceInForwardStrand.setCharAt(i, 'g');
-                    break;
-                case 'G':
-                    sequenceInForwardStrand.setCharAt(i, 'C');
-                    break;
-                case 'g':
-                    sequenceInForwardStrand.setCharAt(i, 'c');
-                    break;
-                case 'T':
-                    sequenceInForwardStrand.setCharAt(i, 'A');
-                    break;
-                case 't':
-                    sequenceInForwardStrand.setCharAt(i, 'a');
-                    break;
-            }
+            sequenceInForwardStrand.setCharAt(i, complement(sequenceInForwardStrand.charAt(i)));
         }
         return sequenceInForwardStrand.toString();
     }
 
+    private static char complement(char base) {
+        switch (base) {
+            // Capitalization holds a special meaning for dbSNP so we need to preserve it.
+            // See https://www.ncbi.nlm.nih.gov/books/NBK44414/#_Reports_Lowercase_Small_Sequence_Letteri_
+            case 'A':
+                return 'T';
+            case 'a':
+                return 't';
+            case 'C':
+                return 'G';
+            case 'c':
+                return 'g';
+            case 'G':
+                return 'C';
+            case 'g':
+                return 'c';
+            case 'T':
+                return 'A';
+            case 't':
+                return 'a';
+            default:
+                return base;
+        }
+    }
+
+    /**
+     * Plain single nucleotide allele strings like "A/G" are split directly. Any other allele string is parsed once,
+     * and its alleles are taken from a cache the next times it is found, so the returned list must not be modified.
+     */
     public List<String> getAllelesInForwardStrand() {
-        if (dbsnpVariantType.equals(DbsnpVariantType.MICROSATELLITE)) {
-            return getMicrosatelliteAllelesInForwardStrand();
-        } else {
-            if (allelesOrientation.equals(Orientation.FORWARD) || allelesOrientation.equals(Orientation.UNKNOWN)) {
-                return Arrays.asList(alleles);
-            } else {
-                return Arrays.stream(alleles).map(this::reverseComplement).collect(Collectors.toList());
+        boolean microsatellite = dbsnpVariantType.equals(DbsnpVariantType.MICROSATELLITE);
+        boolean reverse = allelesOrientation.equals(Orientation.REVERSE);
+        if (!microsatellite) {
+            List<String> singleNucleotideAlleles = getSingleNucleotideAllelesInForwardStrand(alleles, reverse);
+            if (singleNucleotideAlleles != null) {
+                return singleNucleotideAlleles;
             }
         }
+
+        AllelesKey key = new AllelesKey(alleles, reverse, microsatellite);
+        List<String> allelesInForwardStrand = ALLELES_IN_FORWARD_STRAND_CACHE.get(key);
+        if (allelesInForwardStrand == null) {
+            allelesInForwardStrand = Collections.unmodifiableList(parseAllelesInForwardStrand(microsatellite, reverse));
+            ALLELES_IN_FORWARD_STRAND_CACHE.put(key, allelesInForwardStrand);
+        }
+        return allelesInForwardStrand;
+    }
+
+    /**
+     * @return the alleles of a string made only of single nucleotides separated by slashes, like "A/G" or "a/c/t", or
+     * null if the alleles string has any other format
+     */
+    private static List<String> getSingleNucleotideAllelesInForwardStrand(String alleles, boolean reverse) {
+        int length = alleles.length();
+        if (length % 2 == 0) {
+            return null;
+        }
+        String[] singleNucleotideAlleles = new String[length / 2 + 1];
+        for (int i = 0; i < length; i += 2) {
+            char base = alleles.charAt(i);
+            if (complement(base) == base || (i + 1 < length && alleles.charAt(i + 1) != '/')) {
+                return null;
+            }
+            singleNucleotideAlleles[i / 2] = String.valueOf(reverse ? complement(base) : base);
+        }
+        return Arrays.asList(singleNucleotideAlleles);
+    }
+
+    private List<String> parseAllelesInForwardStrand(boolean microsatellite, boolean reverse) {
+        String[] allelesArray = splitAndTrimAlleles(alleles);
+        if (microsatellite) {
+            return getMicrosatelliteAllelesInForwardStrand(allelesArray, reverse);
+        } else if (reverse) {
+            return Arrays.stream(allelesArray).map(DbsnpVariantAlleles::reverseComplement).collect(Collectors.toList());
+        } else {
+            return Arrays.asList(allelesArray);
+        }
     }
 
     /**
@@ -165,13 +228,15 @@ public class DbsnpVariantAlleles {
      * variant is in the reverse strand, then the alleles are reversed and complemented. If expressed with the
      * compressed syntax, alleles are also unrolled, e.g. (T)4 becomes TTTT.
      *
+     * @param alleles Array containing all alleles, as found in dbSNP
+     * @param reverse whether the alleles are in the reverse strand
      * @return List containing all alleles in the forward strand
      */
-    private List<String> getMicrosatelliteAllelesInForwardStrand() {
+    private List<String> getMicrosatelliteAllelesInForwardStrand(String[] alleles, boolean reverse) {
         String[] allelesArray = decodeMicrosatelliteAlleles(removeSurroundingSquareBrackets(alleles));
         checkMicrosatelliteAlleles(allelesArray);
 
-        if (allelesOrientation.equals(Orientation.REVERSE)) {
+        if (reverse) {
             allelesArray = Arrays.stream(allelesArray).map(this::reverseComplementMicrosatelliteSequence)
                                  .toArray(String[]::new);
         }
@@ -324,4 +389,36 @@ public class DbsnpVariantAlleles {
         return allelesArray;
     }
 
+    private static final class AllelesKey {
+
+        private final String alleles;
+
+        private final boolean reverse;
+
+        private final boolean microsatellite;
+
+        AllelesKey(String alleles, boolean reverse, boolean microsatellite) {
+            this.alleles = alleles;
+            this.reverse = reverse;
+            this.microsatellite = microsatellite;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            AllelesKey that = (AllelesKey) o;
+            return reverse == that.reverse && microsatellite == that.microsatellite
+                    && Objects.equals(alleles, that.alleles);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(alleles, reverse, microsatellite);
+        }
+    }
 }
@@ -36,10 +36,22 @@ public class InputParameters {
 
     private boolean forceRestart;
 
+    private boolean memoryMappedFasta;
+
     private int pageSize;
 
+    private boolean keysetPagination;
+
     private boolean forceImport;
 
+    private int processingThreads;
+
+    private int partitions;
+
+    private String dbsnpHashFilter;
+
+    private double dbsnpHashFilterFalsePositiveRate = 0.01;
+
     public JobParameters toJobParameters() {
         return new JobParametersBuilder()
                 .addString("fasta", fasta)
@@ -50,6 +62,9 @@ public class InputParameters {
                 .addLong("buildNumber", buildNumber)
                 .addLong("chunkSize", (long) chunkSize, false)
                 .addLong("pageSize", (long) pageSize, false)
+                .addString("keysetPagination", Boolean.toString(keysetPagination), false)
+                .addLong("processingThreads", (long) processingThreads, false)
+                .addLong("partitions", (long) partitions, false)
                 .toJobParameters();
     }
 
@@ -93,6 +108,14 @@ public class InputParameters {
         this.forceRestart = forceRestart;
     }
 
+    public boolean isMemoryMappedFasta() {
+        return memoryMappedFasta;
+    }
+
+    public void setMemoryMappedFasta(boolean memoryMappedFasta) {
+        this.memoryMappedFasta = memoryMappedFasta;
+    }
+
     public String getAssemblyReportUrl() {
         return assemblyReportUrl;
     }
@@ -109,6 +132,14 @@ public class InputParameters {
         this.pageSize = pageSize;
     }
 
+    public boolean isKeysetPagination() {
+        return keysetPagination;
+    }
+
+    public void setKeysetPagination(boolean keysetPagination) {
+        this.keysetPagination = keysetPagination;
+    }
+
     public String getAssemblyName() {
         return assemblyName;
     }
@@ -132,4 +163,36 @@ public class InputParameters {
     public void setForceImport(boolean forceImport) {
         this.forceImport = forceImport;
     }
+
+    public int getProcessingThreads() {
+        return processingThreads;
+    }
+
+    public void setProcessingThreads(int processingThreads) {
+        this.processingThreads = processingThreads;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    public String getDbsnpHashFilter() {
+        return dbsnpHashFilter;
+    }
+
+    public void setDbsnpHashFilter(String dbsnpHashFilter) {
+        this.dbsnpHashFilter = dbsnpHashFilter;
+    }
+
+    public double getDbsnpHashFilterFalsePositiveRate() {
+        return dbsnpHashFilterFalsePositiveRate;
+    }
+
+    public void setDbsnpHashFilterFalsePositiveRate(double dbsnpHashFilterFalsePositiveRate) {
+        this.dbsnpHashFilterFalsePositiveRate = dbsnpHashFilterFalsePositiveRate;
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.io;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import uk.ac.ebi.eva.accession.core.configuration.DbsnpDataSource;
+import uk.ac.ebi.eva.accession.core.test.configuration.TestConfiguration;
+import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsLoadOrderPartitioner.MAX_LOAD_ORDER;
+import static uk.ac.ebi.eva.accession.dbsnp.batch.io.SubSnpNoHgvsLoadOrderPartitioner.MIN_LOAD_ORDER;
+
+@RunWith(SpringRunner.class)
+@TestPropertySource({"classpath:application.properties"})
+@ContextConfiguration(classes = {TestConfiguration.class})
+public class SubSnpNoHgvsLoadOrderPartitionerTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final String CHICKEN_ASSEMBLY_5 = "Gallus_gallus-5.0";
+
+    @Autowired
+    private DbsnpDataSource dbsnpDataSource;
+
+    @Test
+    public void splitLoadOrdersIntoContiguousRanges() {
+        Map<String, ExecutionContext> partitions = SubSnpNoHgvsLoadOrderPartitioner.partition(1, 10, 4);
+
+        assertEquals(4, partitions.size());
+        assertRange(partitions.get("partition0"), 1, 3);
+        assertRange(partitions.get("partition1"), 4, 6);
+        assertRange(partitions.get("partition2"), 7, 9);
+        assertRange(partitions.get("partition3"), 10, 10);
+    }
+
+    @Test
+    public void noEmptyPartitionsWhenGridIsLargerThanRange() {
+        Map<String, ExecutionContext> partitions = SubSnpNoHgvsLoadOrderPartitioner.partition(5, 6, 4);
+
+        assertEquals(2, partitions.size());
+        assertRange(partitions.get("partition0"), 5, 5);
+        assertRange(partitions.get("partition1"), 6, 6);
+    }
+
+    private void assertRange(ExecutionContext executionContext, long minLoadOrder, long maxLoadOrder) {
+        assertEquals(minLoadOrder, executionContext.getLong(MIN_LOAD_ORDER));
+        assertEquals(maxLoadOrder, executionContext.getLong(MAX_LOAD_ORDER));
+    }
+
+    @Test
+    public void partitionsReadAllVariantsOnce() throws Exception {
+        SubSnpNoHgvsLoadOrderPartitioner partitioner = new SubSnpNoHgvsLoadOrderPartitioner(
+                CHICKEN_ASSEMBLY_5, null, dbsnpDataSource.getDatasource());
+
+        List<Long> partitionedSsIds = new ArrayList<>();
+        for (ExecutionContext partition : partitioner.partition(3).values()) {
+            partitionedSsIds.addAll(getSsIds(read(new SubSnpNoHgvsReader(
+                    CHICKEN_ASSEMBLY_5, null, partition.getLong(MIN_LOAD_ORDER), partition.getLong(MAX_LOAD_ORDER),
+                    dbsnpDataSource.getDatasource(), PAGE_SIZE))));
+        }
+        List<Long> allSsIds = getSsIds(read(new SubSnpNoHgvsReader(CHICKEN_ASSEMBLY_5, null,
+                                                                   dbsnpDataSource.getDatasource(), PAGE_SIZE)));
+
+        assertEquals(8, allSsIds.size());
+        assertEquals(new HashSet<>(partitionedSsIds).size(), partitionedSsIds.size());
+        Collections.sort(partitionedSsIds);
+        Collections.sort(allSsIds);
+        assertEquals(allSsIds, partitionedSsIds);
+    }
+
+    private List<Long> getSsIds(List<SubSnpNoHgvs> variants) {
+        return variants.stream().map(SubSnpNoHgvs::getSsId).collect(Collectors.toList());
+    }
+
+    private List<SubSnpNoHgvs> read(SubSnpNoHgvsReader reader) throws Exception {
+        reader.afterPropertiesSet();
+        reader.open(new ExecutionContext());
+        try {
+            List<SubSnpNoHgvs> variants = new ArrayList<>();
+            SubSnpNoHgvs variant;
+            while ((variant = reader.read()) != null) {
+                variants.add(variant);
+            }
+            return variants;
+        } finally {
+            reader.close();
+        }
+    }
+}
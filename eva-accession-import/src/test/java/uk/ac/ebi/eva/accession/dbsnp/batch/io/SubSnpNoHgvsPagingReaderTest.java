@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.batch.io;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.ClassUtils;
+
+import uk.ac.ebi.eva.accession.core.configuration.DbsnpDataSource;
+import uk.ac.ebi.eva.accession.core.test.configuration.TestConfiguration;
+import uk.ac.ebi.eva.accession.dbsnp.model.SubSnpNoHgvs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@TestPropertySource({"classpath:application.properties"})
+@ContextConfiguration(classes = {TestConfiguration.class})
+public class SubSnpNoHgvsPagingReaderTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private static final String CHICKEN_ASSEMBLY_5 = "Gallus_gallus-5.0";
+
+    private static final String CHICKEN_ASSEMBLY_4 = "Gallus_gallus-4.0";
+
+    @Autowired
+    private DbsnpDataSource dbsnpDataSource;
+
+    @Test
+    public void readChickenVariants() throws Exception {
+        List<SubSnpNoHgvs> variants = readAll(CHICKEN_ASSEMBLY_5, null);
+        assertEquals(8, variants.size());
+        assertEquals(keys(readAllWithCursor(CHICKEN_ASSEMBLY_5, null)), keys(variants));
+    }
+
+    @Test
+    public void readPreviousBuildVariants() throws Exception {
+        List<SubSnpNoHgvs> variants = readAll(CHICKEN_ASSEMBLY_4, 145L);
+        assertEquals(3, variants.size());
+        assertEquals(keys(readAllWithCursor(CHICKEN_ASSEMBLY_4, 145L)), keys(variants));
+    }
+
+    @Test
+    public void restartAfterLastReadVariant() throws Exception {
+        assertRestartReadsRemainingVariants(PAGE_SIZE);
+    }
+
+    @Test
+    public void restartWithDifferentPageSize() throws Exception {
+        assertRestartReadsRemainingVariants(1);
+        assertRestartReadsRemainingVariants(PAGE_SIZE + 2);
+    }
+
+    private void assertRestartReadsRemainingVariants(int restartPageSize) throws Exception {
+        List<SubSnpNoHgvs> expectedVariants = readAllWithCursor(CHICKEN_ASSEMBLY_5, null);
+        ExecutionContext executionContext = new ExecutionContext();
+        List<SubSnpNoHgvs> variants = new ArrayList<>();
+
+        SubSnpNoHgvsPagingReader reader = buildReader(CHICKEN_ASSEMBLY_5, null, executionContext, PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE + 1; i++) {
+            variants.add(reader.read());
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        SubSnpNoHgvsPagingReader restartedReader = buildReader(CHICKEN_ASSEMBLY_5, null, executionContext,
+                                                               restartPageSize);
+        variants.addAll(readAll(restartedReader));
+
+        assertEquals(keys(expectedVariants), keys(variants));
+    }
+
+    @Test(expected = ItemStreamException.class)
+    public void restartWithoutLastLoadOrderIsNotAllowed() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.putInt(ClassUtils.getShortName(SubSnpNoHgvsPagingReader.class) + ".read.count", PAGE_SIZE);
+        buildReader(CHICKEN_ASSEMBLY_5, null, executionContext, PAGE_SIZE);
+    }
+
+    private List<String> keys(List<SubSnpNoHgvs> variants) {
+        return variants.stream()
+                       .map(variant -> variant.getSsId() + "_" + variant.getContigName() + "_"
+                               + variant.getContigStart() + "_" + variant.getBatchName())
+                       .collect(Collectors.toList());
+    }
+
+    private SubSnpNoHgvsPagingReader buildReader(String assembly, Long buildNumber, ExecutionContext executionContext,
+                                                 int pageSize) throws Exception {
+        SubSnpNoHgvsPagingReader reader = new SubSnpNoHgvsPagingReader(assembly, buildNumber,
+                                                                       dbsnpDataSource.getDatasource(), pageSize);
+        reader.afterPropertiesSet();
+        reader.open(executionContext);
+        return reader;
+    }
+
+    private List<SubSnpNoHgvs> readAll(String assembly, Long buildNumber) throws Exception {
+        return readAll(buildReader(assembly, buildNumber, new ExecutionContext(), PAGE_SIZE));
+    }
+
+    private List<SubSnpNoHgvs> readAll(SubSnpNoHgvsPagingReader reader) throws Exception {
+        try {
+            List<SubSnpNoHgvs> variants = new ArrayList<>();
+            SubSnpNoHgvs variant;
+            while ((variant = reader.read()) != null) {
+                variants.add(variant);
+            }
+            return variants;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private List<SubSnpNoHgvs> readAllWithCursor(String assembly, Long buildNumber) throws Exception {
+        SubSnpNoHgvsReader reader = new SubSnpNoHgvsReader(assembly, buildNumber, dbsnpDataSource.getDatasource(),
+                                                           PAGE_SIZE);
+        reader.afterPropertiesSet();
+        reader.open(new ExecutionContext());
+        try {
+            List<SubSnpNoHgvs> variants = new ArrayList<>();
+            SubSnpNoHgvs variant;
+            while ((variant = reader.read()) != null) {
+                variants.add(variant);
+            }
+            return variants;
+        } finally {
+            reader.close();
+        }
+    }
+}
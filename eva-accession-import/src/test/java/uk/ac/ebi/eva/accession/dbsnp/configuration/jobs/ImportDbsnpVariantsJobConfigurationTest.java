@@ -15,22 +15,28 @@
  */
 package uk.ac.ebi.eva.accession.dbsnp.configuration.jobs;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.test.JobLauncherTestUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import uk.ac.ebi.eva.accession.core.model.dbsnp.DbsnpSubmittedVariantEntity;
+import uk.ac.ebi.eva.accession.core.service.nonhuman.dbsnp.DbsnpSubmittedVariantHashFilter;
 import uk.ac.ebi.eva.accession.core.test.configuration.TestConfiguration;
 import uk.ac.ebi.eva.accession.dbsnp.parameters.InputParameters;
 import uk.ac.ebi.eva.accession.dbsnp.test.BatchTestConfiguration;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -38,6 +44,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.BUILD_DBSNP_HASH_FILTER_STEP;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_STEP;
 import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.VALIDATE_CONTIGS_STEP;
 
@@ -52,6 +60,12 @@ public class ImportDbsnpVariantsJobConfigurationTest {
     @Autowired
     private JobLauncherTestUtils jobLauncherTestUtils;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     @DirtiesContext
     public void executeJobTrueForceImport() throws Exception {
@@ -84,6 +98,50 @@ public class ImportDbsnpVariantsJobConfigurationTest {
         assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
     }
 
+    @Test
+    @DirtiesContext
+    public void executeJobBuildingDbsnpHashFilter() throws Exception {
+        Path filterPath = temporaryFolder.getRoot().toPath().resolve("dbsnp-hash-filter.bin");
+        inputParameters.setDbsnpHashFilter(filterPath.toString());
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+        List<String> expectedSteps = Arrays.asList(VALIDATE_CONTIGS_STEP, IMPORT_DBSNP_VARIANTS_STEP,
+                                                   BUILD_DBSNP_HASH_FILTER_STEP);
+        assertStepsExecuted(expectedSteps, jobExecution);
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        assertFilterContainsImportedVariants(DbsnpSubmittedVariantHashFilter.readFrom(filterPath));
+    }
+
+    @Test
+    @DirtiesContext
+    public void executeJobTrueForceImportBuildingDbsnpHashFilter() throws Exception {
+        Path filterPath = temporaryFolder.getRoot().toPath().resolve("dbsnp-hash-filter.bin");
+        inputParameters.setForceImport(true);
+        inputParameters.setDbsnpHashFilter(filterPath.toString());
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+        List<String> expectedSteps = Arrays.asList(IMPORT_DBSNP_VARIANTS_STEP, BUILD_DBSNP_HASH_FILTER_STEP);
+        assertStepsExecuted(expectedSteps, jobExecution);
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        assertFilterContainsImportedVariants(DbsnpSubmittedVariantHashFilter.readFrom(filterPath));
+    }
+
+    private void assertFilterContainsImportedVariants(DbsnpSubmittedVariantHashFilter filter) {
+        String assemblyAccession = inputParameters.getAssemblyAccession();
+        assertEquals(assemblyAccession, filter.getAssemblyAccession());
+
+        List<DbsnpSubmittedVariantEntity> importedVariants = mongoTemplate
+                .findAll(DbsnpSubmittedVariantEntity.class)
+                .stream()
+                .filter(variant -> assemblyAccession.equals(variant.getReferenceSequenceAccession()))
+                .collect(Collectors.toList());
+        assertTrue(importedVariants.size() > 0);
+        assertEquals(importedVariants.size(), filter.getNumberOfHashes());
+        for (DbsnpSubmittedVariantEntity variant : importedVariants) {
+            assertTrue(filter.mightContain(assemblyAccession, variant.getHashedMessage()));
+        }
+    }
+
     private void assertStepsExecuted(List expectedSteps, JobExecution jobExecution) {
         Collection<StepExecution> stepExecutions = jobExecution.getStepExecutions();
         List<String> steps = stepExecutions.stream().map(StepExecution::getStepName).collect(Collectors.toList());
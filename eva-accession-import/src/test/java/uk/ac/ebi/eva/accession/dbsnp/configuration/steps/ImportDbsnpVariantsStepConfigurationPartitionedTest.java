@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.accession.dbsnp.configuration.steps;
+
+import org.junit.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_PARTITION_STEP;
+import static uk.ac.ebi.eva.accession.dbsnp.configuration.BeanNames.IMPORT_DBSNP_VARIANTS_STEP;
+
+/**
+ * Runs the same checks as {@link ImportDbsnpVariantsStepConfigurationTest}, importing several ranges of load order of
+ * the dbSNP table concurrently.
+ */
+@TestPropertySource(properties = "parameters.partitions=3")
+public class ImportDbsnpVariantsStepConfigurationPartitionedTest extends ImportDbsnpVariantsStepConfigurationTest {
+
+    private static final int PARTITIONS = 3;
+
+    private static final int EXPECTED_READ_VARIANTS = 8;
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    @Test
+    @DirtiesContext
+    public void everyPartitionIsImportedInItsOwnStepExecution() {
+        JobExecution jobExecution = jobLauncherTestUtils.launchStep(IMPORT_DBSNP_VARIANTS_STEP);
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+
+        List<StepExecution> partitionExecutions = jobExecution
+                .getStepExecutions()
+                .stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith(IMPORT_DBSNP_VARIANTS_PARTITION_STEP))
+                .collect(Collectors.toList());
+        assertEquals(PARTITIONS, partitionExecutions.size());
+        partitionExecutions.forEach(stepExecution -> assertEquals(BatchStatus.COMPLETED, stepExecution.getStatus()));
+        assertEquals(EXPECTED_READ_VARIANTS,
+                     partitionExecutions.stream().mapToInt(StepExecution::getReadCount).sum());
+    }
+}
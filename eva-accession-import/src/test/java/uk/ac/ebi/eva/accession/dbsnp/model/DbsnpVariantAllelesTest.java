@@ -313,4 +313,35 @@ public class DbsnpVariantAllelesTest {
         invalid3.getAllelesInForwardStrand();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void singleNucleotideAlleles() {
+        DbsnpVariantAlleles lowercase = new DbsnpVariantAlleles("a", "a/c/t", Orientation.REVERSE,
+                                                                Orientation.REVERSE, DbsnpVariantType.SNV);
+
+        assertEquals("t", lowercase.getReferenceInForwardStrand());
+        assertEquals(Arrays.asList("t", "g", "a"), lowercase.getAllelesInForwardStrand());
+
+        DbsnpVariantAlleles notOnlyNucleotides = new DbsnpVariantAlleles("A", "A/-/N", Orientation.FORWARD,
+                                                                         Orientation.REVERSE, DbsnpVariantType.SNV);
+
+        assertEquals(Arrays.asList("T", "", "N"), notOnlyNucleotides.getAllelesInForwardStrand());
+
+        DbsnpVariantAlleles whitespace = new DbsnpVariantAlleles("A", " A / G ", Orientation.FORWARD,
+                                                                 Orientation.FORWARD, DbsnpVariantType.SNV);
+
+        assertEquals(Arrays.asList("A", "G"), whitespace.getAllelesInForwardStrand());
+    }
+
+    @Test
+    public void sameAllelesParsedInBothOrientations() {
+        DbsnpVariantAlleles forwardAlleles = new DbsnpVariantAlleles("-", "-/TC", Orientation.FORWARD,
+                                                                     Orientation.FORWARD, DbsnpVariantType.DIV);
+        DbsnpVariantAlleles reverseAlleles = new DbsnpVariantAlleles("-", "-/TC", Orientation.FORWARD,
+                                                                     Orientation.REVERSE, DbsnpVariantType.DIV);
+
+        assertEquals(Arrays.asList("", "TC"), forwardAlleles.getAllelesInForwardStrand());
+        assertEquals(Arrays.asList("", "GA"), reverseAlleles.getAllelesInForwardStrand());
+        assertEquals(Arrays.asList("", "TC"), forwardAlleles.getAllelesInForwardStrand());
+        assertEquals(Arrays.asList("", "GA"), reverseAlleles.getAllelesInForwardStrand());
+    }
+}
@@ -42,6 +42,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -265,37 +266,51 @@ public class AccessionReportWriter {
         return originalChromosomes.iterator().next();
     }
 
+    /**
+     * Adds the context base to the indels of the chunk. The bases of all of them are retrieved together, so that the
+     * FASTA file is read in order of position, see {@link FastaSequenceReader#getContextNucleotidesAndNewStarts}.
+     */
     private List<? extends AccessionWrapper<ISubmittedVariant, String, Long>> denormalizeVariants(
             List<? extends AccessionWrapper<ISubmittedVariant, String, Long>> accessions) {
+        boolean[] denormalizationNeeded = new boolean[accessions.size()];
+        List<ISubmittedVariant> normalizedIndels = new ArrayList<>();
+        for (int i = 0; i < accessions.size(); i++) {
+            denormalizationNeeded[i] = isDenormalizationNeeded(accessions.get(i).getData());
+            if (denormalizationNeeded[i]) {
+                normalizedIndels.add(accessions.get(i).getData());
+            }
+        }
+        Iterator<ImmutableTriple<Long, String, String>> contextNucleotidesInfo =
+                fastaSequenceReader.getContextNucleotidesAndNewStarts(normalizedIndels).iterator();
+
         List<AccessionWrapper<ISubmittedVariant, String, Long>> denormalizedAccessions = new ArrayList<>();
-        for (AccessionWrapper<ISubmittedVariant, String, Long> accession : accessions) {
+        for (int i = 0; i < accessions.size(); i++) {
+            AccessionWrapper<ISubmittedVariant, String, Long> accession = accessions.get(i);
+            ISubmittedVariant variant = accession.getData();
+            if (denormalizationNeeded[i]) {
+                variant = createVariantWithContextBase(variant, contextNucleotidesInfo.next());
+            }
             denormalizedAccessions.add(new AccessionWrapper<>(accession.getAccession(), accession.getHash(),
-                                                              denormalizeVariant(accession.getData())));
+                                                              variant));
         }
         return denormalizedAccessions;
     }
 
-    private ISubmittedVariant denormalizeVariant(ISubmittedVariant normalizedVariant) {
+    private boolean isDenormalizationNeeded(ISubmittedVariant normalizedVariant) {
         if (normalizedVariant.getReferenceAllele().isEmpty() || normalizedVariant.getAlternateAllele().isEmpty()) {
             if (fastaSequenceReader.doesContigExist(normalizedVariant.getContig())) {
-                return createVariantWithContextBase(normalizedVariant);
+                return true;
             } else {
                 throw new IllegalArgumentException("Contig '" + normalizedVariant.getContig()
                                                    + "' does not appear in the FASTA file ");
             }
         } else {
-            return normalizedVariant;
+            return false;
         }
     }
 
-    private ISubmittedVariant createVariantWithContextBase(ISubmittedVariant normalizedVariant) {
-        String oldReference = normalizedVariant.getReferenceAllele();
-        String oldAlternate = normalizedVariant.getAlternateAllele();
-        long oldStart = normalizedVariant.getStart();
-        ImmutableTriple<Long, String, String> contextNucleotideInfo =
-                fastaSequenceReader.getContextNucleotideAndNewStart(normalizedVariant.getContig(), oldStart,
-                                                                    oldReference, oldAlternate);
-
+    private ISubmittedVariant createVariantWithContextBase(
+            ISubmittedVariant normalizedVariant, ImmutableTriple<Long, String, String> contextNucleotideInfo) {
         return new SubmittedVariant(normalizedVariant.getReferenceSequenceAccession(),
                                     normalizedVariant.getTaxonomyAccession(),
                                     normalizedVariant.getProjectAccession(),
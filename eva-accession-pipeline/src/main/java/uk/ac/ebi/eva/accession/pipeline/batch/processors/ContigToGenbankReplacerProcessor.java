@@ -19,13 +19,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemProcessor;
 import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
-import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
 import uk.ac.ebi.eva.commons.core.models.IVariant;
 import uk.ac.ebi.eva.commons.core.models.pipeline.Variant;
 import uk.ac.ebi.eva.commons.core.models.pipeline.VariantSourceEntry;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -41,32 +41,35 @@ public class ContigToGenbankReplacerProcessor implements ItemProcessor<IVariant,
 
     private ContigMapping contigMapping;
 
+    private Map<String, String> genbankReplacements;
+
     private Set<String> processedContigs;
 
     public ContigToGenbankReplacerProcessor(ContigMapping contigMapping) {
         this.contigMapping = contigMapping;
+        this.genbankReplacements = contigMapping.getGenbankReplacements();
         this.processedContigs = new HashSet<>();
     }
 
     @Override
     public IVariant process(IVariant variant) throws Exception {
         String contigName = variant.getChromosome();
-        ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contigName);
-
-        StringBuilder message = new StringBuilder();
-        if (contigMapping.isGenbankReplacementPossible(contigName, contigSynonyms, message)) {
-            return replaceContigWithGenbankAccession(variant, contigSynonyms);
+        String genbank = genbankReplacements.get(contigName);
+        if (genbank != null) {
+            return replaceContigWithGenbankAccession(variant, genbank);
         } else {
-            if (!processedContigs.contains(contigName)) {
+            if (processedContigs.add(contigName)) {
+                StringBuilder message = new StringBuilder();
+                contigMapping.isGenbankReplacementPossible(contigName, contigMapping.getContigSynonyms(contigName),
+                                                           message);
                 logger.warn(message.toString());
-                processedContigs.add(contigName);
             }
             return variant;
         }
     }
 
-    private IVariant replaceContigWithGenbankAccession(IVariant variant, ContigSynonyms contigSynonyms) {
-        Variant newVariant = new Variant(contigSynonyms.getGenBank(), variant.getStart(), variant.getEnd(),
+    private IVariant replaceContigWithGenbankAccession(IVariant variant, String genbank) {
+        Variant newVariant = new Variant(genbank, variant.getStart(), variant.getEnd(),
                                          variant.getReference(), variant.getAlternate());
         Collection<VariantSourceEntry> sourceEntries = variant.getSourceEntries().stream()
                                                               .map(VariantSourceEntry.class::cast)
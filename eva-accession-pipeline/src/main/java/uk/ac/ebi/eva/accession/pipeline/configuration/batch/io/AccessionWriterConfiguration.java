@@ -55,7 +55,9 @@ public class AccessionWriterConfiguration {
             throws IOException {
         return new AccessionReportWriter(new File(inputParameters.getOutputVcf()),
                                          new FastaSynonymSequenceReader(contigMapping,
-                                                                        Paths.get(inputParameters.getFasta())),
+                                                                        Paths.get(inputParameters.getFasta()),
+                                                                        inputParameters.isMemoryMappedFasta(),
+                                                                        inputParameters.getFastaWindowLength()),
                                          contigMapping,
                                          inputParameters.getContigNaming());
     }
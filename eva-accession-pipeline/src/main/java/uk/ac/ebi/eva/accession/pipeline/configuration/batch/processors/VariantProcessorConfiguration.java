@@ -23,7 +23,10 @@ import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.support.CompositeItemProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
+import uk.ac.ebi.eva.accession.core.configuration.AssemblyReportCacheConfiguration;
+import uk.ac.ebi.eva.accession.core.contig.AssemblyReportCache;
 import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
 import uk.ac.ebi.eva.accession.pipeline.parameters.InputParameters;
 import uk.ac.ebi.eva.accession.pipeline.batch.processors.ContigToGenbankReplacerProcessor;
@@ -38,6 +41,7 @@ import static uk.ac.ebi.eva.accession.pipeline.configuration.BeanNames.COMPOSITE
  * Configuration to inject a VariantProcessor as a bean.
  */
 @Configuration
+@Import({AssemblyReportCacheConfiguration.class})
 public class VariantProcessorConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(VariantProcessorConfiguration.class);
@@ -66,7 +70,8 @@ public class VariantProcessorConfiguration {
     }
 
     @Bean
-    ContigMapping contigMapping(InputParameters parameters) throws Exception {
-        return new ContigMapping(parameters.getAssemblyReportUrl());
+    ContigMapping contigMapping(InputParameters parameters, AssemblyReportCache assemblyReportCache)
+            throws Exception {
+        return assemblyReportCache.getContigMapping(parameters.getAssemblyReportUrl());
     }
 }
@@ -45,6 +45,10 @@ public class InputParameters {
 
     private boolean forceRestart;
 
+    private boolean memoryMappedFasta;
+
+    private int fastaWindowLength;
+
     private ContigNaming contigNaming;
 
     public JobParameters toJobParameters() {
@@ -150,6 +154,22 @@ public class InputParameters {
         this.forceRestart = forceRestart;
     }
 
+    public boolean isMemoryMappedFasta() {
+        return memoryMappedFasta;
+    }
+
+    public void setMemoryMappedFasta(boolean memoryMappedFasta) {
+        this.memoryMappedFasta = memoryMappedFasta;
+    }
+
+    public int getFastaWindowLength() {
+        return fastaWindowLength;
+    }
+
+    public void setFastaWindowLength(int fastaWindowLength) {
+        this.fastaWindowLength = fastaWindowLength;
+    }
+
     public ContigNaming getContigNaming() {
         return contigNaming;
     }
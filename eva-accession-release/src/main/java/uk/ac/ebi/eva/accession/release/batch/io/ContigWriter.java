@@ -21,7 +21,6 @@ import org.springframework.batch.item.ItemStreamWriter;
 
 import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
 import uk.ac.ebi.eva.accession.core.contig.ContigNaming;
-import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -78,8 +77,7 @@ public class ContigWriter implements ItemStreamWriter<String> {
                 throw new IllegalArgumentException("The contig cannot be null or empty");
             }
 
-            ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contig);
-            String sequenceName = contigMapping.getContigSynonym(contig, contigSynonyms, ContigNaming.SEQUENCE_NAME);
+            String sequenceName = contigMapping.getContigSynonym(contig, ContigNaming.SEQUENCE_NAME);
 
             if (sequenceName == null || sequenceName.isEmpty()) {
                 throw new IllegalArgumentException("Could not find the corresponding sequence name for contig " + contig);
@@ -22,7 +22,6 @@ import org.springframework.batch.item.ItemProcessor;
 
 import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
 import uk.ac.ebi.eva.accession.core.contig.ContigNaming;
-import uk.ac.ebi.eva.accession.core.contig.ContigSynonyms;
 import uk.ac.ebi.eva.commons.core.models.IVariant;
 import uk.ac.ebi.eva.commons.core.models.IVariantSourceEntry;
 
@@ -83,8 +82,7 @@ public class VariantToVariantContextProcessor implements ItemProcessor<IVariant,
     }
 
     private String getSequenceName(String contig) {
-        ContigSynonyms contigSynonyms = contigMapping.getContigSynonyms(contig);
-        return contigMapping.getContigSynonym(contig, contigSynonyms, ContigNaming.SEQUENCE_NAME);
+        return contigMapping.getContigSynonym(contig, ContigNaming.SEQUENCE_NAME);
     }
 
     private Map<String, String> getAttributes(IVariant variant) {
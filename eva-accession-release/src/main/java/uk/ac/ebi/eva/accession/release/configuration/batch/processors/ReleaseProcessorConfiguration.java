@@ -21,7 +21,10 @@ import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.support.CompositeItemProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
+import uk.ac.ebi.eva.accession.core.configuration.AssemblyReportCacheConfiguration;
+import uk.ac.ebi.eva.accession.core.contig.AssemblyReportCache;
 import uk.ac.ebi.eva.accession.core.contig.ContigMapping;
 import uk.ac.ebi.eva.accession.core.batch.io.FastaSynonymSequenceReader;
 import uk.ac.ebi.eva.accession.release.parameters.InputParameters;
@@ -39,6 +42,7 @@ import java.util.Arrays;
 import static uk.ac.ebi.eva.accession.release.configuration.BeanNames.RELEASE_PROCESSOR;
 
 @Configuration
+@Import({AssemblyReportCacheConfiguration.class})
 public class ReleaseProcessorConfiguration {
 
     @Bean(RELEASE_PROCESSOR)
@@ -57,12 +61,14 @@ public class ReleaseProcessorConfiguration {
     FastaSynonymSequenceReader fastaSynonymSequenceReader(ContigMapping contigMapping, InputParameters parameters)
             throws IOException {
         Path referenceFastaFile = Paths.get(parameters.getFasta());
-        return new FastaSynonymSequenceReader(contigMapping, referenceFastaFile);
+        return new FastaSynonymSequenceReader(contigMapping, referenceFastaFile, parameters.isMemoryMappedFasta(),
+                                              parameters.getFastaWindowLength());
     }
 
     @Bean
-    ContigMapping contigMapping(InputParameters parameters) throws Exception {
-        return new ContigMapping(parameters.getAssemblyReportUrl());
+    ContigMapping contigMapping(InputParameters parameters, AssemblyReportCache assemblyReportCache)
+            throws Exception {
+        return assemblyReportCache.getContigMapping(parameters.getAssemblyReportUrl());
     }
 
 }
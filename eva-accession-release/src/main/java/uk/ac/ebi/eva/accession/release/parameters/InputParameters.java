@@ -31,6 +31,10 @@ public class InputParameters {
 
     private boolean forceRestart;
 
+    private boolean memoryMappedFasta;
+
+    private int fastaWindowLength;
+
     private int chunkSize;
 
     public JobParameters toJobParameters() {
@@ -82,6 +86,22 @@ public class InputParameters {
         this.forceRestart = forceRestart;
     }
 
+    public boolean isMemoryMappedFasta() {
+        return memoryMappedFasta;
+    }
+
+    public void setMemoryMappedFasta(boolean memoryMappedFasta) {
+        this.memoryMappedFasta = memoryMappedFasta;
+    }
+
+    public int getFastaWindowLength() {
+        return fastaWindowLength;
+    }
+
+    public void setFastaWindowLength(int fastaWindowLength) {
+        this.fastaWindowLength = fastaWindowLength;
+    }
+
     public int getChunkSize() {
         return chunkSize;
     }
@@ -20,13 +20,12 @@ package uk.ac.ebi.eva.accession.ws.service;
 
 import org.springframework.stereotype.Service;
 import uk.ac.ebi.ampt2d.commons.accession.core.models.AccessionWrapper;
-import uk.ac.ebi.ampt2d.commons.accession.hashing.SHA1HashingFunction;
 import uk.ac.ebi.ampt2d.commons.accession.rest.dto.AccessionResponseDTO;
 
 import uk.ac.ebi.eva.accession.core.model.ISubmittedVariant;
 import uk.ac.ebi.eva.accession.core.model.SubmittedVariant;
 import uk.ac.ebi.eva.accession.core.service.nonhuman.SubmittedVariantAccessioningService;
-import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantSummaryFunction;
+import uk.ac.ebi.eva.accession.core.summary.SubmittedVariantHashingFunction;
 import uk.ac.ebi.eva.accession.ws.dto.BeaconAlleleRequest;
 import uk.ac.ebi.eva.accession.ws.dto.BeaconAlleleResponse;
 
@@ -39,8 +38,7 @@ public class SubmittedVariantsBeaconService {
 
     private SubmittedVariantAccessioningService submittedVariantsService;
 
-    private Function<ISubmittedVariant, String> hashingFunction =
-            new SubmittedVariantSummaryFunction().andThen(new SHA1HashingFunction());
+    private Function<ISubmittedVariant, String> hashingFunction = new SubmittedVariantHashingFunction();
 
     public SubmittedVariantsBeaconService(SubmittedVariantAccessioningService submittedVariantAccessioningService) {
         this.submittedVariantsService = submittedVariantAccessioningService;